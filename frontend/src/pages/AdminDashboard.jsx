@@ -14,6 +14,7 @@ const AdminDashboard = () => {
     const [events, setEvents] = useState([]);
     const [allShows, setAllShows] = useState([]);
     const [allBookings, setAllBookings] = useState([]);
+    const [bookingsCursor, setBookingsCursor] = useState(null);
     
     const [editingEventId, setEditingEventId] = useState(null);
     const [editingShowId, setEditingShowId] = useState(null);
@@ -83,10 +84,12 @@ const AdminDashboard = () => {
         }
     };
 
-    const fetchBookings = async () => {
+    // The admin listing is paged; X-Next-Cursor is absent on the last page
+    const fetchBookings = async (after) => {
         try {
-            const res = await api.get('/api/bookings/all');
-            setAllBookings(res.data);
+            const res = await api.get('/api/bookings/all', { params: after ? { after } : {} });
+            setAllBookings(prev => (after ? [...prev, ...res.data] : res.data));
+            setBookingsCursor(res.headers['x-next-cursor'] ?? null);
         } catch (error) {
             console.error("Failed to fetch all bookings", error);
         }
@@ -629,6 +632,13 @@ const AdminDashboard = () => {
                                 )}
                             </tbody>
                         </table>
+                        {bookingsCursor && (
+                            <div className="mt-6 flex justify-center">
+                                <Button variant="secondary" onClick={() => fetchBookings(bookingsCursor)}>
+                                    Load more
+                                </Button>
+                            </div>
+                        )}
                     </motion.div>
                 )}
             </AnimatePresence>
@@ -17,6 +17,7 @@ const BookingPage = () => {
     const [loading, setLoading] = useState(false);
     const [success, setSuccess] = useState(false);
     const [error, setError] = useState('');
+    const [queue, setQueue] = useState(null);
 
     const show = state?.show;
     const event = state?.event;
@@ -37,23 +38,51 @@ const BookingPage = () => {
         return <div className="p-8">Missing booking details. Please select a show first.</div>;
     }
 
+    const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+    // A hot show answers 429 without Retry-After: wait in the virtual queue, then book with the ticket
+    const waitForAdmission = async () => {
+        let status = (await api.post(`/api/shows/${show.id}/queue`)).data;
+        setQueue(status);
+        while (!status.admitted) {
+            await sleep(Math.min(5, Math.max(1, status.etaSeconds)) * 1000);
+            status = (await api.get(`/api/shows/${show.id}/queue`, {
+                headers: { 'X-Queue-Ticket': status.ticket }
+            })).data;
+            setQueue(status);
+        }
+        return status.ticket;
+    };
+
     const handleBook = async (e) => {
         e.preventDefault();
         setLoading(true);
         setError('');
-        
+
+        const book = (ticket) => api.post('/api/bookings', {
+            showId: show.id,
+            seatCount: parseInt(seatCount)
+        }, ticket ? { headers: { 'X-Queue-Ticket': ticket } } : undefined);
+
         try {
-            await api.post('/api/bookings', {
-                showId: show.id,
-                seatCount: parseInt(seatCount)
-            });
+            try {
+                await book();
+            } catch (err) {
+                if (err.response?.status !== 429 || err.response.headers['retry-after']) {
+                    throw err;
+                }
+                await book(await waitForAdmission());
+            }
             setSuccess(true);
             setTimeout(() => {
                 navigate('/bookings');
             }, 2000);
         } catch (err) {
-            setError('Booking failed. Not enough seats or server error.');
+            setError(err.response?.status === 429
+                ? 'Too many requests right now. Please try again in a moment.'
+                : 'Booking failed. Not enough seats or server error.');
         } finally {
+            setQueue(null);
             setLoading(false);
         }
     };
@@ -106,6 +135,13 @@ const BookingPage = () => {
                                 {error}
                             </div>
                         )}
+
+                        {queue && !queue.admitted && (
+                            <div className="p-3 bg-amber-50 border border-amber-200 text-amber-800 rounded-lg text-sm">
+                                This show is in high demand. You are number {queue.position} in the queue
+                                (about {queue.etaSeconds}s); your booking will go through once you are admitted.
+                            </div>
+                        )}
                         
                         <div className="space-y-2">
                              <label className="block text-sm font-medium text-gray-700">Number of Seats</label>
@@ -0,0 +1,140 @@
+package com.task.task1;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads booking the same show, through {@link BookingService#book}
+ * directly and through the per-show group committer, once per seat strategy.
+ * Each iteration gets a fresh show large enough not to sell out; raise the
+ * thread count with {@code -t}. Runs against the embedded H2 unless
+ * {@code -p jdbcUrl=jdbc:postgresql://localhost:5432/booking} points it at a
+ * local Postgres (credentials from {@code SPRING_DATASOURCE_USERNAME/PASSWORD}).
+ * The {@code aborted} counter is bookings that failed on a seat-count conflict.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class BookingContentionBenchmark {
+
+    private static final int SEATS_PER_SHOW = 500_000;
+
+    @Param({"inventory", "pessimistic", "conditional", "optimistic", "sharded"})
+    public String seatStrategy;
+
+    @Param("")
+    public String jdbcUrl;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingGroupCommitter groupCommitter;
+    private ShowRepository showRepository;
+    private SeatInventory seatInventory;
+    private UserRepository userRepository;
+    private Event event;
+    private volatile Long showId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Task1Application.class)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("server.port=0",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "app.booking.seat-strategy=" + seatStrategy);
+        if (!jdbcUrl.isEmpty()) {
+            builder.properties("spring.datasource.url=" + jdbcUrl);
+        }
+        context = builder.run();
+        bookingService = context.getBean(BookingService.class);
+        groupCommitter = context.getBean(BookingGroupCommitter.class);
+        showRepository = context.getBean(ShowRepository.class);
+        seatInventory = context.getBean(SeatInventory.class);
+        userRepository = context.getBean(UserRepository.class);
+        event = context.getBean(EventRepository.class)
+                .save(Event.builder().title("Contention").durationMinutes(120).build());
+    }
+
+    @Setup(Level.Iteration)
+    public void newShow() {
+        Show show = showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Stadium")
+                .auditoriumName("Main")
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .totalSeats(SEATS_PER_SHOW)
+                .seatsPerRow(1000)
+                .bookedSeats(0)
+                .build());
+        seatInventory.register(show);
+        showId = show.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Caller {
+
+        public long aborted;
+
+        User user;
+        Authentication authentication;
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            aborted = 0;
+        }
+
+        @Setup(Level.Trial)
+        public void register(BookingContentionBenchmark benchmark) {
+            user = benchmark.userRepository.save(User.builder()
+                    .name("Bench")
+                    .email(UUID.randomUUID() + "@bench.example.com")
+                    .passwordHash("x")
+                    .roles(Set.of("USER"))
+                    .build());
+            CustomUserDetails details = new CustomUserDetails(user);
+            authentication = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+        }
+    }
+
+    @Benchmark
+    public BookingResponse book(Caller caller) {
+        SecurityContextHolder.getContext().setAuthentication(caller.authentication);
+        try {
+            return bookingService.book(new BookingRequest(showId, 2));
+        } catch (IllegalStateException e) {
+            caller.aborted++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public BatchBookingResult bookGroupCommit(Caller caller) {
+        BatchBookingResult result = groupCommitter.submit(new BookingCommand(caller.user.getEmail(),
+                caller.user.getId(), new BookingRequest(showId, 2), null)).join();
+        if (result.error() != null) {
+            caller.aborted++;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingEventSerializationBenchmark {
+
+    private BookingEventPublisher publisher;
+    private BookingConfirmedEvent event;
+
+    @Setup
+    public void setUp() {
+        publisher = new BookingEventPublisher(mock(NamedParameterJdbcTemplate.class), "booking-confirmed",
+                new ObjectMapper().findAndRegisterModules());
+        event = new BookingConfirmedEvent(123_456L, 42L, 10L, 2, LocalDateTime.of(2030, 1, 1, 20, 0));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return publisher.serialize(event);
+    }
+}
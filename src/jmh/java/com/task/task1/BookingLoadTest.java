@@ -0,0 +1,187 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load against a running instance: {@code concurrency} clients
+ * book single seats on one show for {@code seconds}, then latency percentiles
+ * are printed as one JSON line. Run it once against the default mode and once
+ * against {@code --spring.profiles.active=virtual} to compare p99.
+ * <p>
+ * The per-user rate limit and the waiting room would answer most of this load
+ * with 429, so start the app with {@code --app.rate-limit.enabled=false
+ * --app.waiting-room.enabled=false} for the comparison. 429s are reported as
+ * {@code throttled}, apart from admission 503s ({@code rejected}) and errors,
+ * and a run with any of them is not a like-for-like latency comparison.
+ * <p>
+ * Args: {@code [baseUrl=http://localhost:8080] [concurrency=200] [seconds=30] [users=50]}
+ */
+public final class BookingLoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+
+    private BookingLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        new BookingLoadTest(baseUrl).run(concurrency, seconds, users);
+    }
+
+    private void run(int concurrency, int seconds, int userCount) throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        String admin = register("load-admin-" + run + "@example.com", "ADMIN");
+        JsonNode event = post("/api/events", admin, Map.of("title", "Load " + run, "durationMinutes", 120));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        JsonNode show = post("/api/shows", admin, Map.of(
+                "eventId", event.get("id").asLong(),
+                "venueName", "Load Arena",
+                "auditoriumName", "Main",
+                "startTime", start.toString(),
+                "totalSeats", 1_000_000,
+                "seatsPerRow", 1000));
+        String booking = JSON.writeValueAsString(Map.of("showId", show.get("id").asLong(), "seatCount", 1));
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            tokens.add(register("load-" + run + "-" + i + "@example.com", "USER"));
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(tokens.get(i % tokens.size()), booking, deadline);
+            futures.add(clients.submit(worker::call));
+        }
+        Worker total = new Worker(null, null, 0);
+        for (Future<Worker> future : futures) {
+            total.merge(future.get());
+        }
+        clients.shutdown();
+        System.out.println(total.summary(concurrency, seconds));
+    }
+
+    private String register(String email, String role) throws Exception {
+        JsonNode response = post("/api/auth/register", null,
+                Map.of("name", "Load", "email", email, "phone", "9999999999", "password", "password123", "role", role));
+        return response.get("token").asText();
+    }
+
+    private JsonNode post(String path, String token, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private final class Worker {
+
+        private final String token;
+        private final String body;
+        private final long deadline;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long rejected;
+        private long throttled;
+        private long failed;
+
+        Worker(String token, String body, long deadline) {
+            this.token = token;
+            this.body = body;
+            this.deadline = deadline;
+        }
+
+        Worker call() {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/bookings"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            while (System.nanoTime() < deadline) {
+                long started = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                if (status == 200) {
+                    record(System.nanoTime() - started);
+                } else if (status == 503) {
+                    rejected++;
+                } else if (status == 429) {
+                    throttled++;
+                } else {
+                    failed++;
+                }
+            }
+            return this;
+        }
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void merge(Worker other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            rejected += other.rejected;
+            throttled += other.throttled;
+            failed += other.failed;
+        }
+
+        String summary(int concurrency, int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format(
+                    "{\"concurrency\":%d,\"seconds\":%d,\"ok\":%d,\"rejected\":%d,\"throttled\":%d,\"failed\":%d,"
+                            + "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p90Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                    concurrency, seconds, count, rejected, throttled, failed, count / (double) seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+        }
+
+        private double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.task.task1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingMapperBenchmark {
+
+    private final BookingMapper mapper = new BookingMapper();
+    private Booking booking;
+    private BookingView view;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 18, 0);
+        Event event = Event.builder().id(1L).title("Bench Movie").city("Pune").language("EN")
+                .genre("Drama").durationMinutes(120).rating("UA").build();
+        Show show = Show.builder().id(10L).event(event).venueName("Hall").auditoriumName("Screen 1")
+                .startTime(start).endTime(start.plusHours(2)).totalSeats(200).bookedSeats(50).build();
+        User user = User.builder().id(5L).email("bench@example.com").build();
+        booking = Booking.builder().id(100L).user(user).show(show).seatNumbers("F9,F10").seatCount(2)
+                .createdAt(start.minusDays(1)).build();
+        view = new BookingView(100L, "bench@example.com", "F9,F10", start.minusDays(1), 10L, "Hall", "Screen 1",
+                start, start.plusHours(2), 200, 50, 1L, "Bench Movie", "Pune", "EN", "Drama", 120, "UA");
+    }
+
+    @Benchmark
+    public BookingResponse fromEntity() {
+        return mapper.toBookingResponse(booking);
+    }
+
+    @Benchmark
+    public BookingResponse fromProjection() {
+        return mapper.toBookingResponse(view);
+    }
+}
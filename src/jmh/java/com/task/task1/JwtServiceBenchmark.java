@@ -0,0 +1,46 @@
+package com.task.task1;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        TestUtils.setField(jwtService, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        TestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        TestUtils.setField(jwtService, "cacheSize", 10_000);
+        jwtService.init();
+        user = User.builder().id(42L).email("bench@example.com").roles(Set.of("USER")).build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public JwtClaims verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    /** Full signature check and claims parse, as on a verify cache miss. */
+    @Benchmark
+    public String verifyUncached() {
+        return jwtService.extractUsername(token);
+    }
+}
@@ -0,0 +1,49 @@
+package com.task.task1;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final OutboxRelay outboxRelay;
+    private final OffloadingPasswordEncoder passwordEncoder;
+    private final LogSampling logSampling;
+
+    public AdminController(OutboxRelay outboxRelay,
+                           OffloadingPasswordEncoder passwordEncoder,
+                           LogSampling logSampling) {
+        this.outboxRelay = outboxRelay;
+        this.passwordEncoder = passwordEncoder;
+        this.logSampling = logSampling;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/outbox")
+    public OutboxStats outbox() {
+        return outboxRelay.sampleStats();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/password-hashing")
+    public PasswordHashingStats passwordHashing() {
+        return passwordEncoder.stats();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/log-sampling")
+    public Map<String, Double> logSampling() {
+        return logSampling.rates();
+    }
+
+    /** Omitting {@code rate} removes the override for the category. */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/log-sampling")
+    public Map<String, Double> setLogSampling(@RequestParam String category,
+                                              @RequestParam(required = false) Double rate) {
+        return logSampling.setRate(category, rate);
+    }
+}
@@ -0,0 +1,126 @@
+package com.task.task1;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps in-flight API requests at what the connection pool can serve. With
+ * virtual threads Tomcat no longer bounds concurrency, so without this every
+ * request would pile onto Hikari and the database. Excess requests wait here
+ * in FIFO order for up to {@code app.admission.max-wait}; beyond
+ * {@code app.admission.max-queue} waiters, or after the wait, they get 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionFilter(DataSource dataSource,
+                           @Value("${app.admission.max-concurrent:0}") int maxConcurrent,
+                           @Value("${app.admission.max-queue:1000}") int maxQueue,
+                           @Value("${app.admission.max-wait:2s}") Duration maxWait) {
+        this.limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+        this.permits = new Semaphore(limit, true);
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            // with replica routing, reads and writes draw on separate pools
+            if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                return dataSource.unwrap(ReadWriteRoutingDataSource.class).maximumPoolSize();
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // fall through to Hikari's default
+        }
+        return 10;
+    }
+}
@@ -0,0 +1,62 @@
+package com.task.task1;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+public class AnalyticsController {
+
+    private final SalesAnalytics salesAnalytics;
+    private final SalesAggregates salesAggregates;
+
+    public AnalyticsController(SalesAnalytics salesAnalytics, SalesAggregates salesAggregates) {
+        this.salesAnalytics = salesAnalytics;
+        this.salesAggregates = salesAggregates;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/shows")
+    public List<ShowOccupancy> shows(@RequestParam(required = false) Long eventId) {
+        return salesAnalytics.shows(eventId);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/top-shows")
+    public List<ShowOccupancy> topShows(@RequestParam(required = false) Integer limit) {
+        return salesAnalytics.topShows(CursorPage.limit(limit));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/events")
+    public List<SalesBreakdown> events() {
+        return salesAnalytics.byEvent();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cities")
+    public List<SalesBreakdown> cities() {
+        return salesAnalytics.byCity();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/hourly")
+    public List<HourlySales> hourly(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return salesAnalytics.hourly(from, to);
+    }
+
+    /** Recomputes the rollups from the bookings table, e.g. after the event stream was replayed. */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        salesAggregates.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
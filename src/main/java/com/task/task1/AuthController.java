@@ -4,6 +4,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,15 +18,18 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final UserRevocationCache revocations;
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           AuthenticationManager authenticationManager,
-                          JwtService jwtService) {
+                          JwtService jwtService,
+                          UserRevocationCache revocations) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.revocations = revocations;
     }
 
     @PostMapping("/register")
@@ -52,18 +56,29 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+        Authentication authentication;
         try {
             var authToken = new UsernamePasswordAuthenticationToken(
                     request.email(),
                     request.password()
             );
-            authenticationManager.authenticate(authToken);
+            authentication = authenticationManager.authenticate(authToken);
         } catch (BadCredentialsException ex) {
             return ResponseEntity.status(401).build();
         }
 
-        User user = userRepository.findByEmail(request.email()).orElseThrow();
+        // The provider already loaded the user; no second lookup
+        User user = ((CustomUserDetails) authentication.getPrincipal()).getUser();
         String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new AuthResponse(token));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        revocations.revoke(authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,26 @@
+package com.task.task1;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/shows/{showId}/availability")
+public class AvailabilityController {
+
+    private final AvailabilityStream availabilityStream;
+
+    public AvailabilityController(AvailabilityStream availabilityStream) {
+        this.availabilityStream = availabilityStream;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long showId, HttpServletRequest request) {
+        // behind a proxy, set server.forward-headers-strategy so this is the client's address
+        return availabilityStream.subscribe(showId, request.getRemoteAddr());
+    }
+}
@@ -0,0 +1,256 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-Sent Events of a show's seat availability. Every
+ * {@code app.availability.tick-ms} the ticker compares each watched show's
+ * count in {@link SeatInventory} with what it last pushed and, if it moved,
+ * renders one event and hands it to every subscriber, so a hot show costs one
+ * fan-out per tick however many bookings it took.
+ * <p>
+ * Each subscriber has a single pending slot drained by a small sender pool:
+ * a client that cannot keep up has its pending update replaced by the newer
+ * one, so it skips to the latest count and nobody else waits on it.
+ * <p>
+ * The endpoint is anonymous, so a subscription is refused with 404 unless
+ * {@link ShowSearchIndex} already knows the show, which keeps made-up ids off
+ * the database, and each client address may hold at most
+ * {@code app.availability.max-per-client} streams. Streams time out after
+ * {@code app.availability.timeout}; EventSource reconnects on its own.
+ */
+@Component
+public class AvailabilityStream {
+
+    private final SeatInventory seatInventory;
+    private final ShowSearchIndex showSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxPerClient;
+    private final ExecutorService sender;
+
+    private final ConcurrentHashMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ConcurrentHashMap<String, Integer> perClient = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AvailabilityStream(SeatInventory seatInventory,
+                              ShowSearchIndex showSearchIndex,
+                              ObjectMapper objectMapper,
+                              @Value("${app.availability.timeout:5m}") Duration timeout,
+                              @Value("${app.availability.max-subscribers:20000}") int maxSubscribers,
+                              @Value("${app.availability.max-per-client:10}") int maxPerClient,
+                              @Value("${app.availability.send-threads:4}") int sendThreads) {
+        this.seatInventory = seatInventory;
+        this.showSearchIndex = showSearchIndex;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerClient = maxPerClient;
+        this.sender = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Long showId, String client) {
+        if (!showSearchIndex.contains(showId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Show not found");
+        }
+        if (!admit(client)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many availability streams");
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            release(client);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many availability subscribers");
+        }
+        int available;
+        try {
+            available = seatInventory.availableSeats(showId);
+        } catch (IllegalArgumentException e) {
+            // deleted since the index saw it
+            subscribers.decrementAndGet();
+            release(client);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Show not found");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, showId, client);
+        topics.compute(showId, (id, current) -> {
+            Topic joined = current != null ? current : new Topic(available);
+            joined.subscribers.add(subscriber);
+            return joined;
+        });
+        emitter.onCompletion(() -> leave(subscriber));
+        emitter.onTimeout(() -> leave(subscriber));
+        emitter.onError(error -> leave(subscriber));
+        try {
+            // buffered until this thread hands the emitter over, so no other thread writes the response meanwhile
+            emitter.send(render(new AvailabilityUpdate(showId, available, 0)));
+        } catch (IOException e) {
+            leave(subscriber);
+            throw new UncheckedIOException(e);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.tick-ms:500}")
+    public void tick() {
+        for (Map.Entry<Long, Topic> entry : topics.entrySet()) {
+            Topic topic = entry.getValue();
+            int available;
+            try {
+                available = seatInventory.availableSeats(entry.getKey());
+            } catch (IllegalArgumentException e) {
+                // show deleted; close its streams
+                topic.subscribers.forEach(subscriber -> {
+                    leave(subscriber);
+                    subscriber.emitter.complete();
+                });
+                continue;
+            }
+            if (available == topic.lastPushed) {
+                continue;
+            }
+            Set<DataWithMediaType> event = render(
+                    new AvailabilityUpdate(entry.getKey(), available, available - topic.lastPushed));
+            topic.lastPushed = available;
+            topic.subscribers.forEach(subscriber -> offer(subscriber, event));
+        }
+    }
+
+    public int subscribers() {
+        return subscribers.get();
+    }
+
+    /** Updates replaced before a slow subscriber received them. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        topics.values().forEach(topic -> topic.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> event) {
+        if (subscriber.pending.getAndSet(event) != null) {
+            dropped.incrementAndGet();
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Set<DataWithMediaType> event = subscriber.pending.getAndSet(null);
+            if (event == null) {
+                subscriber.sending.set(false);
+                // an offer between the empty read and the flag reset found sending still set
+                if (subscriber.pending.get() == null || !subscriber.sending.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+                leave(subscriber);
+                subscriber.emitter.completeWithError(e);
+                subscriber.pending.set(null);
+                return;
+            }
+        }
+    }
+
+    private void leave(Subscriber subscriber) {
+        Topic topic = topics.get(subscriber.showId);
+        if (topic == null || !topic.subscribers.remove(subscriber)) {
+            return;
+        }
+        subscribers.decrementAndGet();
+        release(subscriber.client);
+        topics.computeIfPresent(subscriber.showId, (id, current) -> current.subscribers.isEmpty() ? null : current);
+    }
+
+    private boolean admit(String client) {
+        boolean[] admitted = new boolean[1];
+        perClient.compute(client, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxPerClient) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private void release(String client) {
+        perClient.computeIfPresent(client, (key, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private Set<DataWithMediaType> render(AvailabilityUpdate update) {
+        try {
+            return SseEmitter.event()
+                    .name("availability")
+                    .data(objectMapper.writeValueAsString(update))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + update, e);
+        }
+    }
+
+    private static final class Topic {
+
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // only the ticker writes this after creation
+        volatile int lastPushed;
+
+        Topic(int available) {
+            this.lastPushed = available;
+        }
+    }
+
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        final Long showId;
+        final String client;
+        final AtomicReference<Set<DataWithMediaType>> pending = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long showId, String client) {
+            this.emitter = emitter;
+            this.showId = showId;
+            this.client = client;
+        }
+    }
+}
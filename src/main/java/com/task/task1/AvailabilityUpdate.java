@@ -0,0 +1,12 @@
+package com.task.task1;
+
+/**
+ * Pushed to availability subscribers; {@code delta} is the change since the
+ * previous update on the stream (0 for the first), so several bookings in one
+ * tick arrive as a single update.
+ */
+public record AvailabilityUpdate(
+        Long showId,
+        int availableSeats,
+        int delta
+) {}
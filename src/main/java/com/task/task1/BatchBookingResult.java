@@ -0,0 +1,14 @@
+package com.task.task1;
+
+public record BatchBookingResult(
+        BookingResponse booking,
+        String error
+) {
+    public static BatchBookingResult success(BookingResponse booking) {
+        return new BatchBookingResult(booking, null);
+    }
+
+    public static BatchBookingResult failure(String error) {
+        return new BatchBookingResult(null, error);
+    }
+}
@@ -27,6 +27,8 @@ public class Booking {
     @Column(nullable = false)
     private String seatNumbers;
 
+    private Integer seatCount;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 }
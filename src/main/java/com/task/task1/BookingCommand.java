@@ -0,0 +1,13 @@
+package com.task.task1;
+
+/**
+ * {@code userId} is known when the caller was authenticated from JWT claims,
+ * which lets the booking reference the user without loading it.
+ * {@code correlationId} follows the booking onto its outbox event.
+ */
+public record BookingCommand(
+        String userEmail,
+        Long userId,
+        BookingRequest request,
+        String correlationId
+) {}
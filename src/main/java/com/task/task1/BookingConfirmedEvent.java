@@ -1,7 +1,11 @@
 package com.task.task1;
 
+import java.time.LocalDateTime;
+
 public record BookingConfirmedEvent(
         Long bookingId,
         Long userId,
-        Long showId
+        Long showId,
+        int seatCount,
+        LocalDateTime bookedAt
 ) {}
@@ -1,32 +1,182 @@
 package com.task.task1;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingGroupCommitter groupCommitter;
+    private final ObjectMapper objectMapper;
+    private final WaitingRoom waitingRoom;
+    private final BookingIdempotency idempotency;
+    private final boolean groupCommit;
+    private final int maxBatch;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService,
+                             BookingGroupCommitter groupCommitter,
+                             ObjectMapper objectMapper,
+                             WaitingRoom waitingRoom,
+                             BookingIdempotency idempotency,
+                             @Value("${app.booking.group-commit.enabled:true}") boolean groupCommit,
+                             @Value("${app.booking.max-batch:10}") int maxBatch) {
         this.bookingService = bookingService;
+        this.groupCommitter = groupCommitter;
+        this.objectMapper = objectMapper;
+        this.waitingRoom = waitingRoom;
+        this.idempotency = idempotency;
+        this.groupCommit = groupCommit;
+        this.maxBatch = maxBatch;
     }
 
     @PreAuthorize("hasRole('USER')")
     @PostMapping
-    public BookingResponse create(@RequestBody BookingRequest request) {
-        return bookingService.book(request);
+    public BookingResponse create(@RequestBody BookingRequest request,
+                                  @RequestHeader(name = WaitingRoom.TICKET_HEADER, required = false) String ticket,
+                                  @RequestHeader(name = BookingIdempotency.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotency.execute(idempotencyKey, request, () -> book(request, ticket));
+        }
+        return book(request, ticket);
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/batch")
+    public List<BatchBookingResult> createBatch(@RequestBody List<BookingRequest> requests,
+                                                @RequestHeader(name = WaitingRoom.TICKET_HEADER, required = false) String ticket) {
+        if (requests.size() > maxBatch) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatch + " bookings per batch");
+        }
+        List<Long> showIds = requests.stream().map(BookingRequest::showId).toList();
+        waitingRoom.checkAdmission(showIds, ticket);
+        long start = System.nanoTime();
+        List<CompletableFuture<BatchBookingResult>> futures = requests.stream()
+                .map(request -> groupCommitter.submit(command(request))
+                        .whenComplete((result, e) -> waitingRoom.recordCommit(request.showId(), System.nanoTime() - start))
+                        .exceptionally(e -> BatchBookingResult.failure(unwrap(e).getMessage())))
+                .toList();
+        List<BatchBookingResult> results = futures.stream().map(CompletableFuture::join).toList();
+        List<Long> booked = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).error() == null) {
+                booked.add(showIds.get(i));
+            }
+        }
+        waitingRoom.consume(booked, ticket);
+        return results;
     }
     @PreAuthorize("hasRole('USER')")
     @GetMapping
-    public java.util.List<BookingResponse> list() {
-        return bookingService.getUserBookings();
+    public ResponseEntity<List<BookingResponse>> list(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer limit) {
+        return bookingService.getUserBookings(after, limit).toResponse();
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
-    public java.util.List<BookingResponse> listAll() {
-        return bookingService.getAllBookings();
+    public ResponseEntity<List<BookingResponse>> listAll(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer limit) {
+        return bookingService.getAllBookings(after, limit).toResponse();
+    }
+
+    /**
+     * Streams every booking as NDJSON (default) or a JSON array, straight from a database cursor.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean ndjson = switch (format) {
+            case "ndjson" -> true;
+            case "json" -> false;
+            default -> throw new IllegalArgumentException("Unsupported export format " + format);
+        };
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                bookingService.exportAll(booking -> {
+                    try {
+                        generator.writeObject(booking);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private BookingResponse book(BookingRequest request, String ticket) {
+        waitingRoom.checkAdmission(Collections.singletonList(request.showId()), ticket);
+        long start = System.nanoTime();
+        BookingResponse response;
+        try {
+            if (!groupCommit) {
+                response = bookingService.book(request);
+            } else {
+                BatchBookingResult result = await(groupCommitter.submit(command(request)));
+                if (result.error() != null) {
+                    throw new IllegalStateException(result.error());
+                }
+                response = result.booking();
+            }
+        } finally {
+            waitingRoom.recordCommit(request.showId(), System.nanoTime() - start);
+        }
+        waitingRoom.consume(Collections.singletonList(request.showId()), ticket);
+        return response;
+    }
+
+    private static BookingCommand command(BookingRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = auth.getPrincipal() instanceof CustomUserDetails details ? details.getUser().getId() : null;
+        return new BookingCommand(auth.getName(), userId, request, MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
@@ -0,0 +1,120 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consumes the booking topic in batches and hands each show's events to the
+ * {@link BookingEventStage}s. Events are keyed by show, so every show belongs
+ * to one partition and one listener thread: shows are processed in parallel
+ * across partitions ({@code app.kafka.consumer.concurrency}) and in order
+ * within one.
+ * <p>
+ * Offsets are committed only after the whole batch went through every stage;
+ * a failed batch is retried until it does (see {@link KafkaConsumerConfig}).
+ * Delivery is at-least-once, so booking ids already handled are remembered
+ * (the most recent {@code app.kafka.consumer.dedup-size}) and skipped when a
+ * batch is redelivered after a failure. That memory is per node: after a
+ * rebalance the new owner of a partition sees the uncommitted tail again, so
+ * stages must tolerate repeats themselves. {@link SalesAggregates} does; the
+ * notifier may send a confirmation twice.
+ */
+@Component
+public class BookingEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingEventConsumer.class);
+
+    private final List<BookingEventStage> stages;
+    private final ObjectReader reader;
+    private final Set<Long> handled;
+    private final Timer batchTimer;
+    private final Counter duplicates;
+
+    public BookingEventConsumer(List<BookingEventStage> stages,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.consumer.dedup-size:100000}") int dedupSize) {
+        this.stages = stages;
+        this.reader = objectMapper.readerFor(BookingConfirmedEvent.class);
+        this.handled = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > dedupSize;
+            }
+        }));
+        this.batchTimer = Timer.builder("booking.pipeline.batch")
+                .description("Running one consumed batch through every booking event stage")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("booking.pipeline.duplicates")
+                .description("Redelivered booking events skipped by the consumer")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = "booking-pipeline",
+            topics = "${app.kafka.booking-topic}",
+            groupId = "${app.kafka.consumer.group-id:booking-pipeline}",
+            concurrency = "${app.kafka.consumer.concurrency:3}",
+            autoStartup = "${app.kafka.consumer.enabled:true}",
+            containerFactory = "bookingPipelineContainerFactory",
+            properties = {
+                    "auto.offset.reset=earliest",
+                    "max.poll.records=${app.kafka.consumer.max-poll-records:500}"
+            })
+    public void onBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        batchTimer.record(() -> process(records));
+        acknowledgment.acknowledge();
+    }
+
+    void process(List<ConsumerRecord<String, String>> records) {
+        Map<Long, List<BookingConfirmedEvent>> byShow = new LinkedHashMap<>();
+        Set<Long> inBatch = new HashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            BookingConfirmedEvent event = parse(record);
+            if (event == null) {
+                continue;
+            }
+            if (handled.contains(event.bookingId()) || !inBatch.add(event.bookingId())) {
+                duplicates.increment();
+                continue;
+            }
+            byShow.computeIfAbsent(event.showId(), id -> new ArrayList<>()).add(event);
+        }
+        byShow.forEach((showId, events) -> {
+            for (BookingEventStage stage : stages) {
+                stage.accept(showId, events);
+            }
+            // only once every stage has it, so a failed show is replayed whole
+            events.forEach(event -> handled.add(event.bookingId()));
+        });
+    }
+
+    private BookingConfirmedEvent parse(ConsumerRecord<String, String> record) {
+        try {
+            return reader.readValue(record.value());
+        } catch (JsonProcessingException e) {
+            // a poison record would otherwise block the partition forever
+            log.warn("Skipping unreadable booking event at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getOriginalMessage());
+            return null;
+        }
+    }
+}
@@ -2,32 +2,73 @@ package com.task.task1;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes booking events to the outbox in the caller's transaction, so an event
+ * exists exactly when its booking commits. {@link OutboxRelay} ships them to Kafka.
+ * Events are keyed by show, so one show's bookings stay in order on a single
+ * partition.
+ */
 @Service
 public class BookingEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO outbox_events (topic, event_key, payload, correlation_id, created_at) "
+                    + "VALUES (:topic, :eventKey, :payload, :correlationId, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
     private final String topic;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
 
-    public BookingEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
+    public BookingEventPublisher(NamedParameterJdbcTemplate jdbcTemplate,
                                  @Value("${app.kafka.booking-topic}") String topic,
                                  ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
+        this.jdbcTemplate = jdbcTemplate;
         this.topic = topic;
-        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerFor(BookingConfirmedEvent.class);
     }
 
+    /** Tags the event with the current request's correlation id. */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publish(BookingConfirmedEvent event) {
+        publishAll(List.of(event), Collections.singletonList(MDC.get(CorrelationIdFilter.MDC_KEY)));
+    }
+
+    /** {@code correlationIds} is parallel to {@code events}; entries may be null. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<BookingConfirmedEvent> events, List<String> correlationIds) {
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] params = new SqlParameterSource[events.size()];
+        for (int i = 0; i < params.length; i++) {
+            BookingConfirmedEvent event = events.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("topic", topic)
+                    .addValue("eventKey", String.valueOf(event.showId()))
+                    .addValue("payload", serialize(event))
+                    .addValue("correlationId", correlationIds.get(i))
+                    .addValue("createdAt", now);
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, params);
+    }
+
+    String serialize(BookingConfirmedEvent event) {
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(topic, json);
+            return writer.writeValueAsString(event);
         } catch (JsonProcessingException e) {
-            // Log the error or handle it as appropriate
-            e.printStackTrace();
+            throw new IllegalStateException("Could not serialize " + event, e);
         }
     }
 }
@@ -0,0 +1,14 @@
+package com.task.task1;
+
+import java.util.List;
+
+/**
+ * A downstream step of {@link BookingEventConsumer}. Called with one show's
+ * new bookings from a consumed batch, in publish order, on the thread that
+ * owns the show's partition; a stage that throws fails the batch, which is
+ * then redelivered.
+ */
+public interface BookingEventStage {
+
+    void accept(Long showId, List<BookingConfirmedEvent> events);
+}
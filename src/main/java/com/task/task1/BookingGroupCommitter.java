@@ -0,0 +1,152 @@
+package com.task.task1;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for bookings. Requests queue per show; one drainer per show
+ * takes everything that arrived while the previous group was committing and
+ * books it in a single transaction via {@link BookingService#bookGroup}.
+ * Each caller still completes with its own result. A show's queue is dropped
+ * as soon as its drainer finds it empty, so only shows with bookings in flight
+ * hold an entry. A group whose transaction lost a lock conflict, such as a
+ * deadlock victim, is retried whole a few times before its callers fail.
+ */
+@Component
+public class BookingGroupCommitter {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BookingService bookingService;
+    private final SeatInventory seatInventory;
+    private final int maxGroupSize;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<Long, ShowQueue> queues = new ConcurrentHashMap<>();
+
+    public BookingGroupCommitter(BookingService bookingService,
+                                 SeatInventory seatInventory,
+                                 @Value("${app.booking.group-commit.max-size:256}") int maxGroupSize,
+                                 @Value("${app.booking.group-commit.threads:0}") int threads) {
+        this.bookingService = bookingService;
+        this.seatInventory = seatInventory;
+        this.maxGroupSize = maxGroupSize;
+        this.executor = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), r -> {
+                    Thread t = new Thread(r, "booking-group-commit");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public CompletableFuture<BatchBookingResult> submit(BookingCommand command) {
+        Long showId = command.request().showId();
+        // checked before queueing so client-supplied ids cannot grow the map
+        if (showId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("showId is required"));
+        }
+        if (!seatInventory.exists(showId)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Show not found"));
+        }
+        Pending pending = new Pending(command);
+        // added inside compute so it cannot land in a queue that drain() is removing
+        ShowQueue queue = queues.compute(showId, (id, current) -> {
+            ShowQueue joined = current != null ? current : new ShowQueue();
+            joined.items.add(pending);
+            return joined;
+        });
+        if (queue.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(showId, queue));
+        }
+        return pending.result;
+    }
+
+    private void drain(Long showId, ShowQueue queue) {
+        while (true) {
+            List<Pending> group = new ArrayList<>();
+            Pending next;
+            while (group.size() < maxGroupSize && (next = queue.items.poll()) != null) {
+                group.add(next);
+            }
+            if (group.isEmpty()) {
+                queue.draining.set(false);
+                queues.computeIfPresent(showId, (id, current) ->
+                        current == queue && current.items.isEmpty() && !current.draining.get() ? null : current);
+                if (queue.items.isEmpty() || !queue.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            commit(showId, group);
+        }
+    }
+
+    private void commit(Long showId, List<Pending> group) {
+        // log lines from the shared transaction carry every request's id
+        MDC.put(CorrelationIdFilter.MDC_KEY, group.stream()
+                .map(p -> p.command.correlationId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(",")));
+        try {
+            List<BatchBookingResult> results = bookGroup(showId, group.stream().map(p -> p.command).toList());
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            for (Pending pending : group) {
+                pending.result.completeExceptionally(e);
+            }
+        } finally {
+            MDC.remove(CorrelationIdFilter.MDC_KEY);
+        }
+    }
+
+    private List<BatchBookingResult> bookGroup(Long showId, List<BookingCommand> commands) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bookingService.bookGroup(showId, commands);
+            } catch (PessimisticLockingFailureException e) {
+                // rolled back as a whole, so nothing of it was booked
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    int queuedShows() {
+        return queues.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class ShowQueue {
+        final ConcurrentLinkedQueue<Pending> items = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+    }
+
+    private static final class Pending {
+        final BookingCommand command;
+        final CompletableFuture<BatchBookingResult> result = new CompletableFuture<>();
+
+        Pending(BookingCommand command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} support for booking. Keys are scoped to the user.
+ * The first request with a key runs the booking; concurrent duplicates on the
+ * same node wait on its future instead of booking again, and later retries get
+ * the stored response without touching the database.
+ * <p>
+ * Completed responses live in a per-node map for {@code app.idempotency.near-ttl}
+ * and in the shared {@link RemoteCache} for {@code app.idempotency.ttl}. A claim
+ * in the shared tier stops a duplicate on another node from booking while the
+ * first is still running; it gets 409 and should retry. Failed bookings are
+ * forgotten so the client can retry them. Reusing a key with a different body
+ * is rejected with 422.
+ */
+@Component
+public class BookingIdempotency {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIdempotency.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String PREFIX = "idempotency:booking:";
+
+    private final RemoteCache remoteCache;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final long nearTtlNanos;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final int nearMaxEntries;
+
+    private final ConcurrentHashMap<String, Entry> near = new ConcurrentHashMap<>();
+
+    public BookingIdempotency(RemoteCache remoteCache,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.near-ttl:10m}") Duration nearTtl,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.pending-ttl:1m}") Duration pendingTtl,
+                              @Value("${app.idempotency.near-max-entries:100000}") int nearMaxEntries) {
+        this.remoteCache = remoteCache;
+        this.writer = objectMapper.writerFor(StoredBooking.class);
+        this.reader = objectMapper.readerFor(StoredBooking.class);
+        this.nearTtlNanos = nearTtl.toNanos();
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.nearMaxEntries = nearMaxEntries;
+    }
+
+    public BookingResponse execute(String key, BookingRequest request, Supplier<BookingResponse> booking) {
+        if (key.isBlank() || key.length() > 255) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to 255 characters");
+        }
+        String scopedKey = PREFIX + SecurityContextHolder.getContext().getAuthentication().getName() + ":" + key;
+        String fingerprint = request.toString();
+        long now = System.nanoTime();
+        if (near.size() >= nearMaxEntries) {
+            trim(now);
+        }
+
+        Entry created = new Entry(fingerprint, new CompletableFuture<>(), now + nearTtlNanos);
+        Entry entry = near.compute(scopedKey,
+                (k, current) -> current != null && (current.expiresAt - now > 0 || !current.result.isDone())
+                        ? current : created);
+        if (entry != created) {
+            checkFingerprint(entry.fingerprint, fingerprint);
+            return await(entry.result);
+        }
+
+        boolean claimed = false;
+        try {
+            StoredBooking stored = claim(scopedKey, fingerprint);
+            claimed = stored == null;
+            BookingResponse response = stored != null ? stored.response() : booking.get();
+            created.result.complete(response);
+            if (claimed) {
+                store(scopedKey, new StoredBooking(fingerprint, response), ttl);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            near.remove(scopedKey, created);
+            created.result.completeExceptionally(e);
+            if (claimed) {
+                release(scopedKey);
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        near.values().removeIf(entry -> entry.expiresAt - now <= 0 && entry.result.isDone());
+    }
+
+    int nearSize() {
+        return near.size();
+    }
+
+    // Drops expired responses, then arbitrary completed ones down to 7/8 of the cap, so a
+    // full map is scanned once per eighth of its size. A dropped response is still in the
+    // shared tier; in-flight bookings stay, and there are only as many as request threads.
+    private void trim(long now) {
+        near.values().removeIf(entry -> entry.expiresAt - now <= 0 && entry.result.isDone());
+        int excess = near.size() - nearMaxEntries * 7 / 8;
+        Iterator<Entry> entries = near.values().iterator();
+        while (excess > 0 && entries.hasNext()) {
+            if (entries.next().result.isDone()) {
+                entries.remove();
+                excess--;
+            }
+        }
+    }
+
+    /** Returns the stored booking for a retry, or null once this node owns the key. */
+    private StoredBooking claim(String scopedKey, String fingerprint) {
+        String json;
+        try {
+            if (remoteCache.putIfAbsent(scopedKey, serialize(new StoredBooking(fingerprint, null)), pendingTtl)) {
+                return null;
+            }
+            json = remoteCache.get(scopedKey);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency store unavailable, deduplicating on this node only: {}", e.toString());
+            return null;
+        }
+        if (json == null) {
+            // claim expired in between; proceeding is no worse than the store being down
+            return null;
+        }
+        StoredBooking stored = deserialize(json);
+        checkFingerprint(stored.fingerprint(), fingerprint);
+        if (stored.response() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A booking with this " + HEADER + " is still in progress");
+        }
+        return stored;
+    }
+
+    private void store(String scopedKey, StoredBooking stored, Duration ttl) {
+        try {
+            remoteCache.put(scopedKey, serialize(stored), ttl);
+        } catch (RuntimeException e) {
+            log.warn("Could not store idempotent response for {}: {}", scopedKey, e.toString());
+        }
+    }
+
+    private void release(String scopedKey) {
+        try {
+            remoteCache.evict(List.of(scopedKey));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency claim {}: {}", scopedKey, e.toString());
+        }
+    }
+
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used with a different request");
+        }
+    }
+
+    private String serialize(StoredBooking stored) {
+        try {
+            return writer.writeValueAsString(stored);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + stored, e);
+        }
+    }
+
+    private StoredBooking deserialize(String json) {
+        try {
+            return reader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt idempotency record", e);
+        }
+    }
+
+    private static BookingResponse await(CompletableFuture<BookingResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /** Shared-tier record; a null response marks a booking still in progress. */
+    record StoredBooking(String fingerprint, BookingResponse response) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<BookingResponse> result, long expiresAt) {
+    }
+}
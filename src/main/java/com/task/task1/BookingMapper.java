@@ -9,18 +9,55 @@ public class BookingMapper {
         if (booking == null) {
             return null;
         }
+        return toBookingResponse(booking, booking.getUser().getEmail());
+    }
 
+    /**
+     * Maps a booking whose user may be an uninitialized reference, taking the email from the caller.
+     */
+    public BookingResponse toBookingResponse(Booking booking, String userEmail) {
         BookingResponse.ShowResponse showResponse = toShowResponse(booking.getShow());
 
         return new BookingResponse(
             booking.getId(),
-            booking.getUser().getEmail(),
+            userEmail,
             showResponse,
             booking.getSeatNumbers(),
             booking.getCreatedAt()
         );
     }
 
+    public BookingResponse toBookingResponse(BookingView view) {
+        BookingResponse.EventResponse eventResponse = new BookingResponse.EventResponse(
+            view.eventId(),
+            view.title(),
+            view.city(),
+            view.language(),
+            view.genre(),
+            view.durationMinutes(),
+            view.rating()
+        );
+
+        BookingResponse.ShowResponse showResponse = new BookingResponse.ShowResponse(
+            view.showId(),
+            eventResponse,
+            view.venueName(),
+            view.auditoriumName(),
+            view.startTime(),
+            view.endTime(),
+            view.totalSeats(),
+            view.bookedSeats()
+        );
+
+        return new BookingResponse(
+            view.id(),
+            view.userEmail(),
+            showResponse,
+            view.seatNumbers(),
+            view.createdAt()
+        );
+    }
+
     private BookingResponse.ShowResponse toShowResponse(Show show) {
         if (show == null) {
             return null;
@@ -0,0 +1,109 @@
+package com.task.task1;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for the phases of a booking, so a slow booking can be pinned on seat
+ * reservation, the seat-count claim (where database strategies wait for the
+ * show row lock), the insert, the outbox write or the commit. All timers
+ * publish histograms for Prometheus quantiles.
+ */
+@Component
+public class BookingMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer reserve;
+    private final Timer claim;
+    private final Timer insert;
+    private final Timer outbox;
+    private final Timer committed;
+    private final Timer rolledBack;
+    private final DistributionSummary groupSize;
+    private final Counter conflictRetried;
+    private final Counter conflictAborted;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.reserve = phase("reserve", "Reserving seats in SeatInventory");
+        this.claim = phase("claim", "Claiming the seat count through the SeatCounter");
+        this.insert = phase("insert", "Inserting booking rows");
+        this.outbox = phase("outbox", "Writing BookingConfirmed events to the outbox");
+        this.committed = transaction("committed");
+        this.rolledBack = transaction("rolled_back");
+        this.groupSize = DistributionSummary.builder("booking.group.size")
+                .description("Bookings per group-commit transaction")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.conflictRetried = conflict("retried");
+        this.conflictAborted = conflict("aborted");
+    }
+
+    public <T> T reserve(Supplier<T> reservation) {
+        return reserve.record(reservation);
+    }
+
+    public <T> T claim(Supplier<T> claiming) {
+        return claim.record(claiming);
+    }
+
+    public <T> T insert(Supplier<T> insertion) {
+        return insert.record(insertion);
+    }
+
+    public void outbox(Runnable write) {
+        outbox.record(write);
+    }
+
+    /** From seat reservation to commit or rollback, recorded by the transaction's completion callback. */
+    public void transaction(long startNanos, boolean commit) {
+        (commit ? committed : rolledBack).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void group(int size) {
+        groupSize.record(size);
+    }
+
+    public void rejected(Long showId) {
+        Counter.builder("booking.rejected")
+                .description("Bookings rejected for lack of seats")
+                .tag("reason", "not_enough_seats")
+                .tag("show", String.valueOf(showId))
+                .register(registry)
+                .increment();
+    }
+
+    /** An optimistic seat claim lost a race; {@code retried} is false once it gave up. */
+    public void conflict(boolean retried) {
+        (retried ? conflictRetried : conflictAborted).increment();
+    }
+
+    private Counter conflict(String outcome) {
+        return Counter.builder("booking.seat.conflicts")
+                .description("Optimistic seat-count updates that lost to a concurrent booking")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Timer phase(String phase, String description) {
+        return Timer.builder("booking.phase")
+                .description(description)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Timer transaction(String outcome) {
+        return Timer.builder("booking.transaction")
+                .description("Booking transaction time from seat reservation to completion")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Booking confirmations to customers; a stub until a mail/SMS provider is wired in. */
+@Component
+@Order(100)
+public class BookingNotifier implements BookingEventStage {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingNotifier.class);
+
+    @Override
+    public void accept(Long showId, List<BookingConfirmedEvent> events) {
+        for (BookingConfirmedEvent event : events) {
+            log.atDebug()
+                    .addKeyValue("booking", event.bookingId())
+                    .addKeyValue("user", event.userId())
+                    .addKeyValue("show", showId)
+                    .log("confirmation queued");
+        }
+    }
+}
@@ -1,10 +1,33 @@
 package com.task.task1;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query("SELECT b FROM Booking b JOIN FETCH b.show s JOIN FETCH s.event WHERE b.user.email = :email")
-    java.util.List<Booking> findByUserEmail(String email);
-}
+    String SELECT_VIEW = "SELECT new com.task.task1.BookingView(b.id, u.email, b.seatNumbers, b.createdAt, "
+            + "s.id, s.venueName, s.auditoriumName, s.startTime, s.endTime, s.totalSeats, s.bookedSeats, "
+            + "e.id, e.title, e.city, e.language, e.genre, e.durationMinutes, e.rating) "
+            + "FROM Booking b JOIN b.user u JOIN b.show s JOIN s.event e ";
+
+    @Query(SELECT_VIEW + "WHERE u.email = :email AND b.id > :after ORDER BY b.id")
+    java.util.List<BookingView> findPageByUserEmail(String email, long after, Pageable pageable);
+
+    @Query(SELECT_VIEW + "WHERE b.id > :after ORDER BY b.id")
+    java.util.List<BookingView> findPage(long after, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_VIEW + "ORDER BY b.id")
+    Stream<BookingView> streamAll();
+
+    @Query("SELECT b.seatNumbers FROM Booking b WHERE b.show.id = :showId")
+    java.util.List<String> findSeatNumbersByShowId(Long showId);
+
+    @Query("SELECT b.show.id, b.seatNumbers FROM Booking b")
+    java.util.List<Object[]> findAllSeatNumbers();
+}
@@ -1,6 +1,13 @@
 package com.task.task1;
 
+import java.util.List;
+
 public record BookingRequest(
         Long showId,
-        int seatCount
-) {}
+        int seatCount,
+        List<String> seats
+) {
+    public BookingRequest(Long showId, int seatCount) {
+        this(showId, seatCount, null);
+    }
+}
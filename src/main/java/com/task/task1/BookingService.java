@@ -1,23 +1,46 @@
 package com.task.task1;
 
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (user_id, show_id, seat_numbers, seat_count, created_at) "
+                    + "VALUES (:userId, :showId, :seatNumbers, :seatCount, :createdAt)";
+
     private final ShowRepository showRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final BookingEventPublisher bookingEventPublisher;
     private final BookingMapper bookingMapper;
+    private final SeatInventory seatInventory;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookingMetrics metrics;
+    private final SeatCounter seatCounter;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -26,61 +49,298 @@ public class BookingService {
                           BookingRepository bookingRepository,
                           UserRepository userRepository,
                           BookingEventPublisher bookingEventPublisher,
-                          BookingMapper bookingMapper) {
+                          BookingMapper bookingMapper,
+                          SeatInventory seatInventory,
+                          NamedParameterJdbcTemplate jdbcTemplate,
+                          BookingMetrics metrics,
+                          SeatCounter seatCounter) {
         this.showRepository = showRepository;
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.bookingEventPublisher = bookingEventPublisher;
         this.bookingMapper = bookingMapper;
+        this.seatInventory = seatInventory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.seatCounter = seatCounter;
     }
 
     @Transactional
     public BookingResponse book(BookingRequest request) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = auth.getPrincipal() instanceof CustomUserDetails details && details.getUser().getId() != null
+                ? userRepository.getReferenceById(details.getUser().getId())
+                : userRepository.findByEmail(email).orElseThrow();
+        Show show = findShow(request.showId());
 
-        Show show = entityManager.find(Show.class, request.showId(), LockModeType.PESSIMISTIC_WRITE);
-        if (show == null) {
-            throw new IllegalArgumentException("Show not found");
+        long start = System.nanoTime();
+        int[] seats = metrics.reserve(() -> request.seats() != null && !request.seats().isEmpty()
+                ? seatInventory.tryReserve(show.getId(), request.seats())
+                : seatInventory.tryReserve(show.getId(), request.seatCount()));
+        if (seats == null) {
+            metrics.rejected(show.getId());
+            throw new IllegalStateException("Not enough seats available");
         }
+        settleOnCompletion(show.getId(), seats, true, start);
+
+        BookingResponse response = persist(user, email, show, seats, seatInventory.labels(show.getId(), seats));
+        claim(show.getId(), seats.length);
+        return response;
+    }
 
-        int available = show.getTotalSeats() - show.getBookedSeats();
-        if (request.seatCount() <= 0 || request.seatCount() > available) {
+    /**
+     * Turns a hold into a booking. The seats are already reserved by the hold,
+     * so a rollback leaves them held rather than releasing them.
+     */
+    @Transactional
+    public BookingResponse confirm(SeatHold hold) {
+        User user = userRepository.findByEmail(hold.getUserEmail()).orElseThrow();
+        Show show = findShow(hold.getShowId());
+        settleOnCompletion(show.getId(), hold.getSeats(), false, System.nanoTime());
+
+        BookingResponse response = persist(user, hold.getUserEmail(), show, hold.getSeats(), hold.getSeatNumbers());
+        claim(show.getId(), hold.getSeats().length);
+        return response;
+    }
+
+    /**
+     * Books a group of requests for one show in a single transaction: one show
+     * read, one JDBC batch insert and one seat-count update for the whole group.
+     * Requests that cannot be seated fail individually without affecting the rest.
+     * Strategies that guard the show row claim per request, since the first claim
+     * holds the row for the rest of the group anyway.
+     */
+    @Transactional
+    public List<BatchBookingResult> bookGroup(Long showId, List<BookingCommand> commands) {
+        Show show = findShow(showId);
+        Map<String, User> users = resolveUsers(commands);
+        long start = System.nanoTime();
+
+        BatchBookingResult[] results = new BatchBookingResult[commands.size()];
+        List<Integer> seated = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        List<int[]> reserved = new ArrayList<>();
+        List<String> correlationIds = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            BookingCommand command = commands.get(i);
+            User user = users.get(command.userEmail());
+            if (user == null) {
+                results[i] = BatchBookingResult.failure("User not found");
+                continue;
+            }
+            BookingRequest request = command.request();
+            int[] seats;
+            try {
+                seats = metrics.reserve(() -> request.seats() != null && !request.seats().isEmpty()
+                        ? seatInventory.tryReserve(showId, request.seats())
+                        : seatInventory.tryReserve(showId, request.seatCount()));
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchBookingResult.failure(e.getMessage());
+                continue;
+            }
+            if (seats == null) {
+                metrics.rejected(showId);
+                results[i] = BatchBookingResult.failure("Not enough seats available");
+                continue;
+            }
+            String claimFailure;
+            try {
+                int seatCount = seats.length;
+                claimFailure = metrics.claim(() -> seatCounter.claim(showId, seatCount))
+                        ? null : "Not enough seats available";
+            } catch (IllegalStateException e) {
+                claimFailure = e.getMessage();
+            } catch (RuntimeException e) {
+                // the whole transaction is lost, e.g. chosen as a deadlock victim
+                seatInventory.release(showId, seats);
+                reserved.forEach(taken -> seatInventory.release(showId, taken));
+                throw e;
+            }
+            if (claimFailure != null) {
+                seatInventory.release(showId, seats);
+                metrics.rejected(showId);
+                results[i] = BatchBookingResult.failure(claimFailure);
+                continue;
+            }
+            reserved.add(seats);
+            seated.add(i);
+            correlationIds.add(command.correlationId());
+            bookings.add(Booking.builder()
+                    .user(user)
+                    .show(show)
+                    .seatNumbers(seatInventory.labels(showId, seats))
+                    .seatCount(seats.length)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        if (bookings.isEmpty()) {
+            return List.of(results);
+        }
+        settleOnCompletion(showId, reserved, start);
+        metrics.group(bookings.size());
+
+        metrics.insert(() -> {
+            insertAll(bookings);
+            return null;
+        });
+        show.setBookedSeats(show.getTotalSeats() - seatInventory.availableSeats(showId));
+        List<BookingConfirmedEvent> events = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            events.add(new BookingConfirmedEvent(booking.getId(), booking.getUser().getId(), showId,
+                    booking.getSeatCount(), booking.getCreatedAt()));
+            results[seated.get(i)] = BatchBookingResult.success(
+                    bookingMapper.toBookingResponse(booking, commands.get(seated.get(i)).userEmail()));
+        }
+        metrics.outbox(() -> bookingEventPublisher.publishAll(events, correlationIds));
+        return List.of(results);
+    }
+
+    /**
+     * Claims the seats on the show row as the transaction's last statement, so
+     * strategies that lock the row hold the lock only for the commit.
+     */
+    private void claim(Long showId, int seatCount) {
+        if (!metrics.claim(() -> seatCounter.claim(showId, seatCount))) {
+            metrics.rejected(showId);
             throw new IllegalStateException("Not enough seats available");
         }
+    }
+
+    // Callers authenticated from JWT claims carry their id, so only legacy tokens need a lookup
+    private Map<String, User> resolveUsers(List<BookingCommand> commands) {
+        Map<String, User> users = new HashMap<>();
+        Set<String> unresolved = new HashSet<>();
+        for (BookingCommand command : commands) {
+            if (command.userId() != null) {
+                users.put(command.userEmail(), userRepository.getReferenceById(command.userId()));
+            } else {
+                unresolved.add(command.userEmail());
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            userRepository.findByEmailIn(unresolved).forEach(user -> users.put(user.getEmail(), user));
+        }
+        return users;
+    }
 
-        show.setBookedSeats(show.getBookedSeats() + request.seatCount());
-        showRepository.save(show);
+    private void insertAll(List<Booking> bookings) {
+        SqlParameterSource[] params = new SqlParameterSource[bookings.size()];
+        for (int i = 0; i < params.length; i++) {
+            Booking booking = bookings.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("userId", booking.getUser().getId())
+                    .addValue("showId", booking.getShow().getId())
+                    .addValue("seatNumbers", booking.getSeatNumbers())
+                    .addValue("seatCount", booking.getSeatCount())
+                    .addValue("createdAt", booking.getCreatedAt());
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, params, keys, new String[]{"id"});
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+        }
+    }
 
+    // Read-only: booked_seats is only ever written by SeatCounter or SeatInventory's batched increments
+    private Show findShow(Long showId) {
+        Show show = entityManager.find(Show.class, showId, Map.of(HibernateHints.HINT_READ_ONLY, true));
+        if (show == null) {
+            throw new IllegalArgumentException("Show not found");
+        }
+        return show;
+    }
+
+    private BookingResponse persist(User user, String email, Show show, int[] seats, String seatNumbers) {
         Booking booking = Booking.builder()
                 .user(user)
                 .show(show)
-                .seatNumbers("AUTO_" + request.seatCount())
+                .seatNumbers(seatNumbers)
+                .seatCount(seats.length)
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        Booking saved = bookingRepository.save(booking);
+        Booking saved = metrics.insert(() -> bookingRepository.save(booking));
 
-        bookingEventPublisher.publish(
-                new BookingConfirmedEvent(saved.getId(), user.getId(), show.getId())
-        );
+        metrics.outbox(() -> bookingEventPublisher.publish(
+                new BookingConfirmedEvent(saved.getId(), user.getId(), show.getId(), seats.length,
+                        saved.getCreatedAt())
+        ));
 
-        return bookingMapper.toBookingResponse(saved);
+        show.setBookedSeats(show.getTotalSeats() - seatInventory.availableSeats(show.getId()));
+        return bookingMapper.toBookingResponse(saved, email);
     }
+
+    private void settleOnCompletion(Long showId, List<int[]> reserved, long startNanos) {
+        int seatCount = reserved.stream().mapToInt(seats -> seats.length).sum();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            seatCounter.committed(showId, seatCount);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                metrics.transaction(startNanos, status == STATUS_COMMITTED);
+                if (status == STATUS_COMMITTED) {
+                    seatCounter.committed(showId, seatCount);
+                } else {
+                    reserved.forEach(seats -> seatInventory.release(showId, seats));
+                }
+            }
+        });
+    }
+
+    private void settleOnCompletion(Long showId, int[] seats, boolean releaseOnRollback, long startNanos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            seatCounter.committed(showId, seats.length);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                metrics.transaction(startNanos, status == STATUS_COMMITTED);
+                if (status == STATUS_COMMITTED) {
+                    seatCounter.committed(showId, seats.length);
+                } else if (releaseOnRollback) {
+                    seatInventory.release(showId, seats);
+                }
+            }
+        });
+    }
+
     @Transactional(readOnly = true)
-    public java.util.List<BookingResponse> getUserBookings() {
+    public CursorPage<BookingResponse> getUserBookings(Long after, Integer limit) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
-        return bookingRepository.findByUserEmail(email).stream()
+        int pageSize = CursorPage.limit(after, limit);
+        List<BookingResponse> rows = bookingRepository
+                .findPageByUserEmail(email, CursorPage.after(after), CursorPage.fetch(pageSize)).stream()
                 .map(bookingMapper::toBookingResponse)
                 .toList();
+        return CursorPage.of(rows, pageSize, BookingResponse::id);
     }
 
+    /** Always paged: unlike one user's bookings, the whole table does not fit in a response. */
     @Transactional(readOnly = true)
-    public java.util.List<BookingResponse> getAllBookings() {
-        return bookingRepository.findAll().stream()
+    public CursorPage<BookingResponse> getAllBookings(Long after, Integer limit) {
+        int pageSize = CursorPage.limit(limit);
+        List<BookingResponse> rows = bookingRepository
+                .findPage(CursorPage.after(after), CursorPage.fetch(pageSize)).stream()
                 .map(bookingMapper::toBookingResponse)
                 .toList();
+        return CursorPage.of(rows, pageSize, BookingResponse::id);
+    }
+
+    /**
+     * Feeds every booking to {@code sink} in id order from a server-side cursor.
+     * Rows are projections, not entities, so nothing accumulates in the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<BookingResponse> sink) {
+        try (Stream<BookingView> bookings = bookingRepository.streamAll()) {
+            bookings.map(bookingMapper::toBookingResponse).forEach(sink);
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.task.task1;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row behind a {@link BookingResponse}, filled by a JPQL constructor
+ * expression so a page of bookings with their show and event is one SQL
+ * statement and no managed entities.
+ */
+public record BookingView(
+        Long id,
+        String userEmail,
+        String seatNumbers,
+        LocalDateTime createdAt,
+        Long showId,
+        String venueName,
+        String auditoriumName,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer totalSeats,
+        Integer bookedSeats,
+        Long eventId,
+        String title,
+        String city,
+        String language,
+        String genre,
+        Integer durationMinutes,
+        String rating
+) {}
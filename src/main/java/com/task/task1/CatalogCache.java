@@ -0,0 +1,273 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Two-tier cache for the event and show listings: a per-node near cache in
+ * front of a shared {@link RemoteCache}. A miss is loaded once per node (other
+ * callers wait on the same future), read through the remote tier, and only
+ * then from the database.
+ * <p>
+ * Admin writes evict exactly the affected keys after their transaction commits
+ * and broadcast them so every node drops its near copy. Both tiers also expire
+ * on their own, which bounds staleness if an invalidation message is lost.
+ * Listings are cached whole, sorted by id, and served as keyset pages; shows
+ * in a page carry live {@code bookedSeats} from {@link SeatInventory}, or
+ * from the {@link SeatCounter} for shows this node has not loaded.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+    static final String EVENTS = "catalog:events:all";
+    static final String SHOWS = "catalog:shows:all";
+    private static final String EVENTS_BY_CITY = "catalog:events:city:";
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final EventRepository eventRepository;
+    private final ShowRepository showRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final RemoteCache remoteCache;
+    private final ObjectMapper objectMapper;
+    private final long nearTtlNanos;
+    private final Duration remoteTtl;
+    private final int nearMaxEntries;
+
+    private final ConcurrentHashMap<String, Entry> near = new ConcurrentHashMap<>();
+
+    public CatalogCache(EventRepository eventRepository,
+                        ShowRepository showRepository,
+                        SeatInventory seatInventory,
+                        SeatCounter seatCounter,
+                        RemoteCache remoteCache,
+                        ObjectMapper objectMapper,
+                        @Value("${app.catalog.near-ttl:60s}") Duration nearTtl,
+                        @Value("${app.catalog.remote-ttl:10m}") Duration remoteTtl,
+                        @Value("${app.catalog.near-max-entries:1000}") int nearMaxEntries) {
+        this.eventRepository = eventRepository;
+        this.showRepository = showRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        this.remoteCache = remoteCache;
+        this.objectMapper = objectMapper;
+        this.nearTtlNanos = nearTtl.toNanos();
+        this.remoteTtl = remoteTtl;
+        this.nearMaxEntries = nearMaxEntries;
+        remoteCache.onInvalidation(keys -> keys.forEach(near::remove));
+    }
+
+    public CursorPage<Event> events(Long after, int limit) {
+        return page(get(EVENTS, Event.class, () -> eventRepository.findAll(BY_ID)), Event::getId, after, limit);
+    }
+
+    public CursorPage<Event> eventsInCity(String city, Long after, int limit) {
+        List<Event> events = get(cityKey(city), Event.class, () -> eventRepository.findByCityIgnoreCaseOrderById(city));
+        return page(events, Event::getId, after, limit);
+    }
+
+    public CursorPage<Show> shows(Long after, int limit) {
+        CursorPage<Show> page = page(get(SHOWS, Show.class, () -> showRepository.findAll(BY_ID)), Show::getId, after, limit);
+        List<Show> live = new ArrayList<>(page.items().size());
+        for (Show show : page.items()) {
+            live.add(Show.builder()
+                    .id(show.getId())
+                    .event(show.getEvent())
+                    .venueName(show.getVenueName())
+                    .auditoriumName(show.getAuditoriumName())
+                    .startTime(show.getStartTime())
+                    .endTime(show.getEndTime())
+                    .totalSeats(show.getTotalSeats())
+                    .bookedSeats(seatInventory.bookedSeats(show.getId(),
+                            () -> seatCounter.bookedSeats(show.getId(), show.getBookedSeats())))
+                    .seatsPerRow(show.getSeatsPerRow())
+                    .build());
+        }
+        return new CursorPage<>(live, page.nextCursor());
+    }
+
+    /**
+     * Evicts the event listings for the given cities, plus the show listing,
+     * which embeds each show's event.
+     */
+    public void evictEvents(String... cities) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(EVENTS);
+        keys.add(SHOWS);
+        for (String city : cities) {
+            if (city != null) {
+                keys.add(cityKey(city));
+            }
+        }
+        invalidate(keys);
+    }
+
+    public void evictShows() {
+        invalidate(Set.of(SHOWS));
+    }
+
+    static String cityKey(String city) {
+        return EVENTS_BY_CITY + city.toLowerCase(Locale.ROOT);
+    }
+
+    // Cached listings are sorted by id, so a keyset page is a binary search plus a sublist.
+    private static <T> CursorPage<T> page(List<T> sorted, ToLongFunction<T> id, Long after, int limit) {
+        long cursor = CursorPage.after(after);
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (id.applyAsLong(sorted.get(mid)) <= cursor) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return CursorPage.of(sorted.subList(low, (int) Math.min(sorted.size(), (long) low + limit + 1)), limit, id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(String key, Class<T> type, Supplier<List<T>> loader) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry entry = near.get(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                return (List<T>) join(entry.value);
+            }
+            if (entry == null && near.size() >= nearMaxEntries) {
+                trim(now);
+            }
+            Entry fresh = new Entry(now + nearTtlNanos);
+            boolean owner = entry == null ? near.putIfAbsent(key, fresh) == null : near.replace(key, entry, fresh);
+            if (owner) {
+                try {
+                    List<T> value = load(key, type, loader, fresh);
+                    fresh.value.complete(value);
+                    return value;
+                } catch (RuntimeException e) {
+                    near.remove(key, fresh);
+                    fresh.value.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Drops expired entries, then arbitrary city listings down to 7/8 of the cap, so a
+    // full map is scanned once per eighth of its size rather than on every miss. The
+    // fixed listings are never trimmed; a per-city key is all a caller can add.
+    private void trim(long now) {
+        near.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        int excess = near.size() - nearMaxEntries * 7 / 8;
+        Iterator<String> keys = near.keySet().iterator();
+        while (excess > 0 && keys.hasNext()) {
+            if (keys.next().startsWith(EVENTS_BY_CITY)) {
+                keys.remove();
+                excess--;
+            }
+        }
+    }
+
+    private <T> List<T> load(String key, Class<T> type, Supplier<List<T>> loader, Entry entry) {
+        JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+        String json = null;
+        try {
+            json = remoteCache.get(key);
+        } catch (RuntimeException e) {
+            log.warn("Remote catalog cache read failed for {}: {}", key, e.toString());
+        }
+        if (json == null) {
+            // Both tiers outlive a replica's lag, so what they cache must come from the primary.
+            json = serialize(ReadWriteRoutingDataSource.onPrimary(loader));
+            // Skip the shared write if an invalidation raced with the load; it may predate the change.
+            if (entry == null || near.get(key) == entry) {
+                try {
+                    remoteCache.put(key, json, remoteTtl);
+                } catch (RuntimeException e) {
+                    log.warn("Remote catalog cache write failed for {}: {}", key, e.toString());
+                }
+            }
+        }
+        // Round-tripping through JSON keeps managed entities out of the cache.
+        try {
+            return List.copyOf(objectMapper.<List<T>>readValue(json, listType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read cached catalog entry " + key, e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog entry", e);
+        }
+    }
+
+    private void invalidate(Set<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(keys);
+            }
+        });
+    }
+
+    private void evictNow(Set<String> keys) {
+        keys.forEach(near::remove);
+        try {
+            remoteCache.evict(keys);
+            remoteCache.publishInvalidation(keys);
+        } catch (RuntimeException e) {
+            log.warn("Remote catalog cache invalidation failed for {}: {}", keys, e.toString());
+        }
+    }
+
+    private static Object join(CompletableFuture<List<?>> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        final long expiresAt;
+        final CompletableFuture<List<?>> value = new CompletableFuture<>();
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
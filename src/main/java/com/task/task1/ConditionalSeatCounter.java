@@ -0,0 +1,34 @@
+package com.task.task1;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks and increments in one statement: a booking that does not fit updates
+ * no row and is rejected without waiting for a lock it never needed. The row
+ * lock the update takes is still held to commit, which is why the booking
+ * service claims last.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.seat-strategy", havingValue = "conditional")
+public class ConditionalSeatCounter implements SeatCounter {
+
+    private static final String CLAIM =
+            "UPDATE shows SET booked_seats = booked_seats + :seats "
+                    + "WHERE id = :id AND total_seats - booked_seats >= :seats";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ConditionalSeatCounter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean claim(Long showId, int seatCount) {
+        return jdbcTemplate.update(CLAIM, new MapSqlParameterSource()
+                .addValue("id", showId)
+                .addValue("seats", seatCount)) == 1;
+    }
+}
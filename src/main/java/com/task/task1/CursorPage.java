@@ -0,0 +1,69 @@
+package com.task.task1;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a keyset-paginated listing ordered by id. {@code nextCursor} is
+ * the id to pass as {@code after} for the following page, or {@code null} on
+ * the last page. Controllers return the items as the body and the cursor in
+ * the {@value #NEXT_CURSOR_HEADER} header, so the body shape stays a plain array.
+ * The catalog listings and a user's own bookings predate paging and stay
+ * whole when a request sends neither {@code after} nor {@code limit}; the
+ * admin booking listing always returns at most {@value #DEFAULT_LIMIT} rows.
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+    /** Limit of an unpaged listing; one below the int maximum so {@code limit + 1} cannot overflow. */
+    public static final int UNPAGED = Integer.MAX_VALUE - 1;
+
+    /** Limit for a listing that existing clients fetch without paging parameters. */
+    public static int limit(Long after, Integer requested) {
+        return after == null && requested == null ? UNPAGED : limit(requested);
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    public static long after(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    /** The query page for {@code limit} rows plus the one that tells whether more exist. */
+    public static Pageable fetch(int limit) {
+        return limit == UNPAGED ? Pageable.unpaged() : PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row only signals that more exist.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, ToLongFunction<T> id) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, id.applyAsLong(items.get(limit - 1)));
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response.body(items);
+    }
+}
@@ -1,12 +1,14 @@
 package com.task.task1;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -20,4 +22,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return new CustomUserDetails(user);
     }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails details, String newPasswordHash) {
+        userRepository.updatePasswordHash(details.getUsername(), newPasswordHash);
+        User user = ((CustomUserDetails) details).getUser();
+        user.setPasswordHash(newPasswordHash);
+        return details;
+    }
 }
@@ -1,6 +1,7 @@
 package com.task.task1;
 
 import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,41 +12,57 @@ import java.util.List;
 public class EventController {
 
     private final EventRepository eventRepository;
+    private final CatalogCache catalogCache;
+    private final ShowSearchIndex searchIndex;
 
-    public EventController(EventRepository eventRepository) {
+    public EventController(EventRepository eventRepository, CatalogCache catalogCache, ShowSearchIndex searchIndex) {
         this.eventRepository = eventRepository;
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public Event create(@Valid @RequestBody Event event) {
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        catalogCache.evictEvents(saved.getCity());
+        return saved;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public Event update(@PathVariable Long id, @Valid @RequestBody Event eventDetails) {
         Event event = eventRepository.findById(id).orElseThrow(() -> new RuntimeException("Event not found"));
+        String oldCity = event.getCity();
         event.setTitle(eventDetails.getTitle());
         event.setCity(eventDetails.getCity());
         event.setGenre(eventDetails.getGenre());
         event.setLanguage(eventDetails.getLanguage());
         event.setDurationMinutes(eventDetails.getDurationMinutes());
         event.setRating(eventDetails.getRating());
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        searchIndex.updateEvent(saved);
+        catalogCache.evictEvents(oldCity, saved.getCity());
+        return saved;
     }
 
     @GetMapping
-    public List<Event> list(@RequestParam(required = false) String city) {
+    public ResponseEntity<List<Event>> list(@RequestParam(required = false) String city,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
         if (city != null && !city.isBlank()) {
-            return eventRepository.findByCityIgnoreCase(city);
+            return catalogCache.eventsInCity(city, after, CursorPage.limit(after, limit)).toResponse();
         }
-        return eventRepository.findAll();
+        return catalogCache.events(after, CursorPage.limit(after, limit)).toResponse();
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        eventRepository.deleteById(id);
+        eventRepository.findById(id).ifPresent(event -> {
+            eventRepository.delete(event);
+            searchIndex.removeEvent(id);
+            catalogCache.evictEvents(event.getCity());
+        });
     }
 }
@@ -1,9 +1,12 @@
 package com.task.task1;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
-    List<Event> findByCityIgnoreCase(String city);
+    // read-only so the catalog listing can be served by a replica
+    @Transactional(readOnly = true)
+    List<Event> findByCityIgnoreCaseOrderById(String city);
 }
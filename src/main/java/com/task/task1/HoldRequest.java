@@ -0,0 +1,8 @@
+package com.task.task1;
+
+import java.util.List;
+
+public record HoldRequest(
+        int seatCount,
+        List<String> seats
+) {}
@@ -0,0 +1,10 @@
+package com.task.task1;
+
+import java.time.LocalDateTime;
+
+public record HoldResponse(
+        String holdId,
+        Long showId,
+        String seatNumbers,
+        LocalDateTime expiresAt
+) {}
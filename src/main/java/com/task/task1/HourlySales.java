@@ -0,0 +1,26 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Booking totals per hour of booking time, maintained by {@link SalesAggregates}. */
+@Entity
+@Table(name = "hourly_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HourlySales {
+
+    @Id
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private long bookings;
+
+    @Column(nullable = false)
+    private long seatsSold;
+}
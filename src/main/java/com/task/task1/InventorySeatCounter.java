@@ -0,0 +1,30 @@
+package com.task.task1;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Trusts {@link SeatInventory}'s in-memory count and leaves the show row to its
+ * batched flush, so a booking never touches the row. Only correct while a single
+ * node books a given show.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.seat-strategy", havingValue = "inventory", matchIfMissing = true)
+public class InventorySeatCounter implements SeatCounter {
+
+    private final SeatInventory seatInventory;
+
+    public InventorySeatCounter(SeatInventory seatInventory) {
+        this.seatInventory = seatInventory;
+    }
+
+    @Override
+    public boolean claim(Long showId, int seatCount) {
+        return true;
+    }
+
+    @Override
+    public void committed(Long showId, int seatCount) {
+        seatInventory.commit(showId, seatCount);
+    }
+}
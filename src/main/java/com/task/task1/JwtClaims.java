@@ -0,0 +1,18 @@
+package com.task.task1;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Set;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked.
+ * {@code userId} is null for tokens issued before the {@code uid} claim existed.
+ */
+public record JwtClaims(
+        String subject,
+        Long userId,
+        Set<String> roles,
+        Set<GrantedAuthority> authorities,
+        long issuedAtMillis,
+        long expiresAtMillis
+) {}
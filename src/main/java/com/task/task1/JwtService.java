@@ -1,31 +1,101 @@
 package com.task.task1;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
+
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${application.security.jwt.cache-size:10000}")
+    private int cacheSize;
+
+    private Key signInKey;
+    private JwtParser parser;
+
+    // Verified token -> claims. Entries die at token expiry; when full, expired
+    // entries go first and then an arbitrary slice, which is cheap and good enough
+    // because a re-verify on a miss is always correct.
+    private final ConcurrentHashMap<String, JwtClaims> verified = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if the
+     * token is malformed, badly signed, expired or has no expiry.
+     */
+    public JwtClaims verify(String token) {
+        JwtClaims claims = verified.get(token);
+        long now = System.currentTimeMillis();
+        if (claims != null) {
+            if (claims.expiresAtMillis() > now) {
+                return claims;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        Claims body;
+        try {
+            body = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        // every token this service issues expires; one that never does could not leave the cache
+        if (body.getExpiration() == null) {
+            return null;
+        }
+        Set<String> roles = parseRoles(body.get("roles", String.class));
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .collect(Collectors.toUnmodifiableSet());
+        Number userId = body.get("uid", Number.class);
+        // iat has second precision; iat_ms lets revocation tell apart tokens issued within one second
+        Number issuedAtMillis = body.get(ISSUED_AT_MILLIS, Number.class);
+        long issuedAt = issuedAtMillis != null ? issuedAtMillis.longValue()
+                : body.getIssuedAt() == null ? 0 : body.getIssuedAt().getTime();
+        claims = new JwtClaims(body.getSubject(), userId == null ? null : userId.longValue(), roles, authorities,
+                issuedAt, body.getExpiration().getTime());
+
+        if (verified.size() >= cacheSize) {
+            evict(now);
+        }
+        verified.put(token, claims);
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -44,46 +114,51 @@ public class JwtService {
             User user
     ) {
         extraClaims.put("roles", String.join(",", user.getRoles()));
+        if (user.getId() != null) {
+            extraClaims.put("uid", user.getId());
+        }
+        long now = System.currentTimeMillis();
+        extraClaims.put(ISSUED_AT_MILLIS, now);
 
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(user.getEmail())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Set<String> extractRoles(String token) {
-        String rolesString = extractClaim(token, claims -> claims.get("roles", String.class));
-        return new HashSet<>(List.of(rolesString.split(",")));
+        return parseRoles(extractClaim(token, claims -> claims.get("roles", String.class)));
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username)) && !isTokenExpired(token);
+        JwtClaims claims = verify(token);
+        return claims != null && claims.subject().equals(username);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Set<String> parseRoles(String rolesString) {
+        if (rolesString == null || rolesString.isEmpty()) {
+            return Set.of();
+        }
+        return Set.copyOf(Arrays.asList(rolesString.split(",")));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private void evict(long now) {
+        verified.values().removeIf(claims -> claims.expiresAtMillis() <= now);
+        int excess = verified.size() - cacheSize * 7 / 8;
+        Iterator<String> it = verified.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
@@ -0,0 +1,41 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Listener containers for {@link BookingEventConsumer}: batch delivery with
+ * offsets committed by the listener, on top of the {@code spring.kafka.*}
+ * settings. A failed batch is redelivered with exponential backoff
+ * ({@code app.kafka.consumer.retry-initial-ms} doubling up to
+ * {@code app.kafka.consumer.retry-max-ms}) until it goes through: skipping it,
+ * as the default handler does after ten attempts, would lose those bookings
+ * from the rollups for good.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> bookingPipelineContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${app.kafka.consumer.retry-initial-ms:500}") long retryInitialMillis,
+            @Value("${app.kafka.consumer.retry-max-ms:30000}") long retryMaxMillis) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialMillis, 2);
+        backOff.setMaxInterval(retryMaxMillis);
+        // ExponentialBackOff never gives up by default, so the recoverer is unreachable
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+}
@@ -0,0 +1,29 @@
+package com.task.task1;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@ConditionalOnProperty(name = "app.outbox.broker", havingValue = "kafka", matchIfMissing = true)
+public class KafkaMessageBroker implements MessageBroker {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    public KafkaMessageBroker(KafkaTemplate<String, String> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Override
+    public CompletableFuture<?> send(String topic, String key, String payload, String correlationId) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, payload);
+        if (correlationId != null) {
+            record.headers().add(CorrelationIdFilter.HEADER, correlationId.getBytes(StandardCharsets.UTF_8));
+        }
+        return kafkaTemplate.send(record);
+    }
+}
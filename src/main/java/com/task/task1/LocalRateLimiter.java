@@ -0,0 +1,84 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA buckets: each key is a single {@link AtomicLong} holding the
+ * theoretical arrival time of the next permit, updated with one CAS, so
+ * checking a known key neither locks nor allocates. A bucket whose arrival
+ * time has passed is full, which is the same as absent, so idle buckets can be
+ * dropped at any time to keep the maps within {@code app.rate-limit.max-keys}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+
+    private final long origin = System.nanoTime();
+    private final ConcurrentHashMap<String, AtomicLong> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> shows = new ConcurrentHashMap<>();
+    private final int maxKeys;
+
+    public LocalRateLimiter(@Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long tryAcquire(String user, int permits, RateLimit limit) {
+        return acquire(bucket(users, user), permits, limit);
+    }
+
+    @Override
+    public long tryAcquire(long showId, int permits, RateLimit limit) {
+        return acquire(bucket(shows, showId), permits, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = now();
+        users.values().removeIf(tat -> tat.get() <= now);
+        shows.values().removeIf(tat -> tat.get() <= now);
+    }
+
+    private long acquire(AtomicLong tat, int permits, RateLimit limit) {
+        if (tat == null) {
+            // Map is full of active buckets; fail open rather than block unknown keys
+            return 0;
+        }
+        long now = now();
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long wait = base - now + (permits - 1) * limit.intervalNanos() - limit.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + permits * limit.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    private <K> AtomicLong bucket(ConcurrentHashMap<K, AtomicLong> buckets, K key) {
+        AtomicLong tat = buckets.get(key);
+        if (tat != null) {
+            return tat;
+        }
+        if (buckets.size() >= maxKeys) {
+            evictIdle();
+            if (buckets.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+}
@@ -0,0 +1,62 @@
+package com.task.task1;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps a configurable fraction of the log lines per category, where a
+ * category is a logger-name prefix ({@code access}, {@code com.task.task1.JwtAuthenticationFilter}).
+ * The longest matching prefix wins; WARN and above are never sampled.
+ * Rates live in static state so they survive a logback reconfiguration and
+ * can be changed at runtime through {@link LogSampling}.
+ */
+public class LogSampler extends TurboFilter {
+
+    private static final Map<String, Double> rates = new ConcurrentHashMap<>();
+    private static final Map<String, Double> resolved = new ConcurrentHashMap<>();
+
+    public static void setRate(String category, double rate) {
+        rates.put(category, Math.max(0, Math.min(1, rate)));
+        resolved.clear();
+    }
+
+    public static void clearRate(String category) {
+        rates.remove(category);
+        resolved.clear();
+    }
+
+    public static Map<String, Double> rates() {
+        return Map.copyOf(rates);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks; sampling those too would apply the rate twice
+        if (format == null || rates.isEmpty() || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = resolved.computeIfAbsent(logger.getName(), LogSampler::resolve);
+        if (rate >= 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static double resolve(String loggerName) {
+        String best = null;
+        for (String category : rates.keySet()) {
+            if ((loggerName.equals(category) || loggerName.startsWith(category + "."))
+                    && (best == null || category.length() > best.length())) {
+                best = category;
+            }
+        }
+        return best == null ? 1 : rates.get(best);
+    }
+}
@@ -0,0 +1,39 @@
+package com.task.task1;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Seeds {@link LogSampler} from {@code app.logging.sampling.<category>=<rate>}
+ * and lets admins change rates at runtime; levels are changed through
+ * {@code /actuator/loggers}.
+ */
+@Component
+public class LogSampling {
+
+    public LogSampling(Environment environment) {
+        Binder.get(environment)
+                .bind("app.logging.sampling", Bindable.mapOf(String.class, Double.class))
+                .ifBound(configured -> configured.forEach(LogSampler::setRate));
+    }
+
+    public Map<String, Double> rates() {
+        return LogSampler.rates();
+    }
+
+    public Map<String, Double> setRate(String category, Double rate) {
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("category is required");
+        }
+        if (rate == null) {
+            LogSampler.clearRate(category);
+        } else {
+            LogSampler.setRate(category, rate);
+        }
+        return rates();
+    }
+}
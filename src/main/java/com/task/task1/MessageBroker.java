@@ -0,0 +1,12 @@
+package com.task.task1;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used by {@link OutboxRelay}. Kafka in production; tests plug in an in-memory stub.
+ */
+public interface MessageBroker {
+
+    /** {@code correlationId} may be null; brokers carry it as a message header. */
+    CompletableFuture<?> send(String topic, String key, String payload, String correlationId);
+}
@@ -0,0 +1,102 @@
+package com.task.task1;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the stats the app already keeps (outbox, password hashing,
+ * admission, rate limiting, waiting room, replica lag) as meters, and
+ * installs the Hibernate statement counter behind {@link StatementCountFilter}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public MeterBinder outboxMetrics(OutboxRelay outboxRelay) {
+        return registry -> {
+            Gauge.builder("outbox.pending", outboxRelay, relay -> relay.stats().pending())
+                    .description("Events waiting to be relayed")
+                    .register(registry);
+            Gauge.builder("outbox.oldest.age", outboxRelay, relay -> relay.stats().oldestPendingAgeMillis())
+                    .description("Age of the oldest unrelayed event")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("outbox.published", outboxRelay, OutboxRelay::published)
+                    .description("Events acknowledged by the broker")
+                    .register(registry);
+            FunctionCounter.builder("outbox.failed", outboxRelay, OutboxRelay::failed)
+                    .description("Sends the broker did not acknowledge")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(OffloadingPasswordEncoder passwordEncoder) {
+        return registry -> {
+            Gauge.builder("password.hashing.active", passwordEncoder, encoder -> encoder.stats().active())
+                    .register(registry);
+            Gauge.builder("password.hashing.queued", passwordEncoder, encoder -> encoder.stats().queued())
+                    .register(registry);
+            FunctionCounter.builder("password.hashing.rejected", passwordEncoder, encoder -> encoder.stats().rejected())
+                    .description("Hashes refused with 503 because the hashing queue was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder availabilityMetrics(AvailabilityStream availabilityStream) {
+        return registry -> {
+            Gauge.builder("availability.subscribers", availabilityStream, AvailabilityStream::subscribers)
+                    .register(registry);
+            FunctionCounter.builder("availability.dropped", availabilityStream, AvailabilityStream::dropped)
+                    .description("Availability updates replaced by a newer one before a slow client received them")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(ObjectProvider<AdmissionFilter> admissionFilter,
+                                        RateLimitFilter rateLimitFilter,
+                                        WaitingRoom waitingRoom) {
+        return registry -> {
+            admissionFilter.ifAvailable(filter -> {
+                Gauge.builder("admission.in.flight", filter, AdmissionFilter::inFlight).register(registry);
+                Gauge.builder("admission.waiting", filter, AdmissionFilter::waiting).register(registry);
+                FunctionCounter.builder("admission.rejected", filter, AdmissionFilter::rejected)
+                        .description("Requests answered 503 by the admission limiter")
+                        .register(registry);
+            });
+            FunctionCounter.builder("ratelimit.rejected", rateLimitFilter, RateLimitFilter::rejected)
+                    .description("Booking requests answered 429 by the rate limiter")
+                    .register(registry);
+            Gauge.builder("waitingroom.hot.shows", waitingRoom, WaitingRoom::hotShows).register(registry);
+            FunctionCounter.builder("waitingroom.rejected", waitingRoom, WaitingRoom::rejected)
+                    .description("Booking attempts without an admitted queue ticket")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        return registry -> replicaLagMonitor.ifAvailable(monitor -> {
+            Gauge.builder("db.replica.lag", monitor, ReplicaLagMonitor::lagSeconds)
+                    .description("Replica replay lag; NaN while unreachable")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("db.replica.available", monitor, m -> m.available() ? 1 : 0)
+                    .description("1 while read-only transactions are routed to the replica")
+                    .register(registry);
+        });
+    }
+}
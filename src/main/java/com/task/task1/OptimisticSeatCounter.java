@@ -0,0 +1,81 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the seat count without locking and writes it back only if nobody else
+ * has in between, retrying with full-jitter backoff up to
+ * {@code app.booking.optimistic.max-attempts} times. {@code booked_seats} itself
+ * is the version: seat bookings are the only writes that can invalidate the
+ * check, so edits to the show's other columns do not abort bookings.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.seat-strategy", havingValue = "optimistic")
+public class OptimisticSeatCounter implements SeatCounter {
+
+    private static final String READ =
+            "SELECT total_seats, booked_seats FROM shows WHERE id = :id";
+    private static final String COMPARE_AND_SET =
+            "UPDATE shows SET booked_seats = :booked + :seats WHERE id = :id AND booked_seats = :booked";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookingMetrics metrics;
+    private final int maxAttempts;
+    private final long backoffNanos;
+
+    public OptimisticSeatCounter(NamedParameterJdbcTemplate jdbcTemplate,
+                                 BookingMetrics metrics,
+                                 @Value("${app.booking.optimistic.max-attempts:5}") int maxAttempts,
+                                 @Value("${app.booking.optimistic.backoff:2ms}") Duration backoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("app.booking.optimistic.max-attempts must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+    }
+
+    @Override
+    public boolean claim(Long showId, int seatCount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", showId)
+                .addValue("seats", seatCount);
+        for (int attempt = 1; ; attempt++) {
+            int[] row;
+            try {
+                row = jdbcTemplate.queryForObject(READ, params,
+                        (rs, i) -> new int[]{rs.getInt("total_seats"), rs.getInt("booked_seats")});
+            } catch (EmptyResultDataAccessException e) {
+                throw new IllegalArgumentException("Show not found");
+            }
+            if (row[0] - row[1] < seatCount) {
+                return false;
+            }
+            if (jdbcTemplate.update(COMPARE_AND_SET, params.addValue("booked", row[1])) == 1) {
+                return true;
+            }
+            if (attempt == maxAttempts) {
+                metrics.conflict(false);
+                throw new IllegalStateException("Seat count changed concurrently, please retry");
+            }
+            metrics.conflict(true);
+            // full jitter: spreads out retries that collided on the same row
+            long ceiling = backoffNanos << Math.min(attempt - 1, 10);
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while retrying seat claim");
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String eventKey;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(length = 64)
+    private String correlationId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,168 @@
+package com.task.task1;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in batches every {@code app.outbox.linger-ms}. Each batch
+ * is sent without waiting per record, then awaited as a whole; rows are
+ * deleted only once the broker acknowledged them, so delivery is
+ * at-least-once and consumers deduplicate on the booking id in the payload.
+ * The relay runs on its own thread rather than the shared {@code @Scheduled}
+ * pool, since a batch may wait up to {@code app.outbox.send-timeout-ms} for
+ * the broker. The same thread samples the backlog every
+ * {@code app.outbox.stats-interval-ms}, so metric scrapes never query the table.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageBroker messageBroker;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final long lingerMillis;
+    private final long statsIntervalNanos;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Timer publishTimer;
+    private final Timer deliveryLag;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile long pending;
+    private volatile LocalDateTime oldestPending;
+    private volatile long lastSample;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       MessageBroker messageBroker,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${app.outbox.linger-ms:50}") long lingerMillis,
+                       @Value("${app.outbox.stats-interval-ms:5000}") long statsIntervalMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.messageBroker = messageBroker;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.lingerMillis = lingerMillis;
+        this.statsIntervalNanos = TimeUnit.MILLISECONDS.toNanos(statsIntervalMillis);
+        this.publishTimer = Timer.builder("outbox.publish")
+                .description("Sending an outbox batch until the broker acknowledged it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from an event's commit to the broker acknowledging it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastSample = System.nanoTime() - statsIntervalNanos;
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+                if (System.nanoTime() - lastSample >= statsIntervalNanos) {
+                    sampleStats();
+                }
+            } catch (RuntimeException e) {
+                // an escaping exception would cancel the schedule for good
+                log.warn("Outbox relay pass failed", e);
+            }
+        }, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void drain() {
+        Integer sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+        } while (sent != null && sent == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(messageBroker.send(event.getTopic(), event.getEventKey(), event.getPayload(),
+                    event.getCorrelationId()));
+        }
+
+        List<Long> acked = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acked.add(batch.get(i).getId());
+                deliveryLag.record(Duration.between(batch.get(i).getCreatedAt(), LocalDateTime.now()));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("Outbox event {} not acknowledged, will retry: {}", batch.get(i).getId(), e.toString());
+            }
+        }
+        publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        outboxEventRepository.deleteAllByIdInBatch(acked);
+        published.addAndGet(acked.size());
+        return acked.size();
+    }
+
+    public long published() {
+        return published.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    /** Backlog as of the last sample; cheap enough for every metrics scrape. */
+    public OutboxStats stats() {
+        LocalDateTime oldest = oldestPending;
+        long age = oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis();
+        return new OutboxStats(pending, age, published.get(), failed.get());
+    }
+
+    /** Reads the backlog from the table, caches it for {@link #stats()} and returns it. */
+    public OutboxStats sampleStats() {
+        lastSample = System.nanoTime();
+        oldestPending = outboxEventRepository.findOldestCreatedAt();
+        pending = outboxEventRepository.count();
+        return stats();
+    }
+}
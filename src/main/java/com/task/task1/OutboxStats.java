@@ -0,0 +1,8 @@
+package com.task.task1;
+
+public record OutboxStats(
+        long pending,
+        long oldestPendingAgeMillis,
+        long published,
+        long failed
+) {}
@@ -0,0 +1,11 @@
+package com.task.task1;
+
+public record PasswordHashingStats(
+        int threads,
+        int active,
+        int queued,
+        long completed,
+        long rejected,
+        double meanHashMillis,
+        double maxHashMillis
+) {}
@@ -0,0 +1,46 @@
+package com.task.task1;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Locks the show row with {@code SELECT ... FOR UPDATE}, checks the remaining
+ * seats and increments them. Every booking for the show queues on the lock
+ * until the previous one commits, including bookings that would all fit.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.seat-strategy", havingValue = "pessimistic")
+public class PessimisticSeatCounter implements SeatCounter {
+
+    private static final String LOCK =
+            "SELECT total_seats - booked_seats FROM shows WHERE id = :id FOR UPDATE";
+    private static final String INCREMENT =
+            "UPDATE shows SET booked_seats = booked_seats + :seats WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PessimisticSeatCounter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean claim(Long showId, int seatCount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", showId)
+                .addValue("seats", seatCount);
+        Integer available;
+        try {
+            available = jdbcTemplate.queryForObject(LOCK, params, Integer.class);
+        } catch (EmptyResultDataAccessException e) {
+            throw new IllegalArgumentException("Show not found");
+        }
+        if (available == null || available < seatCount) {
+            return false;
+        }
+        jdbcTemplate.update(INCREMENT, params);
+        return true;
+    }
+}
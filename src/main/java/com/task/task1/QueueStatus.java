@@ -0,0 +1,9 @@
+package com.task.task1;
+
+public record QueueStatus(
+        String ticket,
+        long position,
+        long etaSeconds,
+        boolean admitted
+) {
+}
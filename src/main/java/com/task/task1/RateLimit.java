@@ -0,0 +1,15 @@
+package com.task.task1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GCRA parameters: one permit every {@code intervalNanos}, with up to
+ * {@code burst} permits available at once.
+ */
+public record RateLimit(long intervalNanos, long toleranceNanos) {
+
+    public static RateLimit perSecond(double rate, int burst) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        return new RateLimit(interval, interval * (Math.max(1, burst) - 1));
+    }
+}
@@ -0,0 +1,304 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throttles booking, hold and queue-join requests per user and per show before
+ * they reach a controller. Runs after {@link JwtAuthenticationFilter} so the
+ * user bucket is keyed by the token subject; the show is read from the path for
+ * holds and from the JSON body for bookings (a batch charges one permit per
+ * item). Queue joins only draw on the user bucket, so a crowd joining the
+ * waiting room does not use up the show's booking budget.
+ * Rejected requests get 429 with Retry-After and never touch the database.
+ * Booking bodies are read only up to {@code app.rate-limit.max-body-bytes}
+ * (413 beyond that); a body whose show ids cannot be told apart, or a batch
+ * that could never fit in a bucket, gets 400 instead of slipping through
+ * cheaper than it is.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BOOKINGS = "/api/bookings";
+    private static final String SHOWS = "/api/shows/";
+    private static final String QUEUE = "/queue";
+
+    private final RateLimiter rateLimiter;
+    private final JsonFactory jsonFactory;
+    private final boolean enabled;
+    private final RateLimit userLimit;
+    private final RateLimit showLimit;
+    private final int userBurst;
+    private final int showBurst;
+    private final int maxBodyBytes;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.user.rate:5}") double userRate,
+                           @Value("${app.rate-limit.user.burst:10}") int userBurst,
+                           @Value("${app.rate-limit.show.rate:500}") double showRate,
+                           @Value("${app.rate-limit.show.burst:1000}") int showBurst,
+                           @Value("${app.rate-limit.max-body-bytes:65536}") int maxBodyBytes) {
+        this.rateLimiter = rateLimiter;
+        this.jsonFactory = objectMapper.getFactory();
+        this.enabled = enabled;
+        this.userLimit = RateLimit.perSecond(userRate, userBurst);
+        this.showLimit = RateLimit.perSecond(showRate, showBurst);
+        this.userBurst = Math.max(1, userBurst);
+        this.showBurst = Math.max(1, showBurst);
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return !uri.startsWith(BOOKINGS) && !(uri.startsWith(SHOWS) && (uri.contains("/holds") || isQueueJoin(uri)));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            // Anonymous requests are turned away by authorization anyway
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        int items = 1;
+        long[] showIds;
+        String uri = request.getRequestURI();
+        if (isQueueJoin(uri)) {
+            showIds = new long[0];
+        } else if (uri.startsWith(SHOWS)) {
+            long showId = pathShowId(uri);
+            showIds = showId > 0 ? new long[]{showId} : new long[0];
+        } else {
+            if (request.getContentLengthLong() > maxBodyBytes) {
+                reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+            if (body.length > maxBodyBytes) {
+                reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            forwarded = new CachedBodyRequest(request, body);
+            Bookings bookings = bookings(body);
+            if (bookings == null) {
+                reject(response, HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+            items = Math.max(1, bookings.items());
+            showIds = bookings.showIds();
+        }
+
+        Arrays.sort(showIds);
+        if (items > userBurst || largestRun(showIds) > showBurst) {
+            // more permits than a bucket holds: waiting would never help
+            reject(response, HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        long wait = rateLimiter.tryAcquire(authentication.getName(), items, userLimit);
+        for (int i = 0; i < showIds.length && wait == 0; ) {
+            int j = i;
+            while (j < showIds.length && showIds[j] == showIds[i]) {
+                j++;
+            }
+            wait = rateLimiter.tryAcquire(showIds[i], j - i, showLimit);
+            i = j;
+        }
+        if (wait > 0) {
+            rejected.incrementAndGet();
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+            return;
+        }
+        filterChain.doFilter(forwarded, response);
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private void reject(HttpServletResponse response, int status) {
+        rejected.incrementAndGet();
+        response.setStatus(status);
+    }
+
+    private static int largestRun(long[] sorted) {
+        int largest = 0;
+        for (int i = 0, run = 0; i < sorted.length; i++) {
+            run = i > 0 && sorted[i] == sorted[i - 1] ? run + 1 : 1;
+            largest = Math.max(largest, run);
+        }
+        return largest;
+    }
+
+    private static boolean isQueueJoin(String uri) {
+        return uri.startsWith(SHOWS) && uri.endsWith(QUEUE);
+    }
+
+    private static long pathShowId(String uri) {
+        int start = SHOWS.length();
+        int end = uri.indexOf('/', start);
+        try {
+            return Long.parseLong(uri, start, end < 0 ? uri.length() : end, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Bookings(int items, long[] showIds) {
+    }
+
+    /**
+     * Counts the bookings in a body holding one booking or a batch and collects
+     * their showIds, which Jackson binds from numbers and numeric strings alike.
+     * Returns {@code null} for anything else, which the controller would turn
+     * down too.
+     */
+    private Bookings bookings(byte[] body) {
+        long[] ids = new long[1];
+        int count = 0;
+        int items = 0;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                items++;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (!"showId".equals(field)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    long showId;
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        showId = parser.getLongValue();
+                    } else if (value == JsonToken.VALUE_STRING && !parser.getText().isBlank()) {
+                        showId = Long.parseLong(parser.getText().trim());
+                    } else if (value == JsonToken.VALUE_NULL || value == JsonToken.VALUE_STRING) {
+                        continue;
+                    } else {
+                        return null;
+                    }
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = showId;
+                }
+                token = array ? parser.nextToken() : null;
+            }
+            if (array ? token != JsonToken.END_ARRAY : items != 1) {
+                return null;
+            }
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+        return new Bookings(items, count == ids.length ? ids : Arrays.copyOf(ids, count));
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the whole body is already in memory, so it is available and then done at once
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.task.task1;
+
+/**
+ * Token buckets for {@link RateLimitFilter}, one per user and one per show.
+ * In-process by default; {@code app.rate-limit.mode=redis} shares them across nodes.
+ *
+ * Each method returns 0 when the permits were granted, otherwise the
+ * nanoseconds until they would be.
+ */
+public interface RateLimiter {
+
+    long tryAcquire(String user, int permits, RateLimit limit);
+
+    long tryAcquire(long showId, int permits, RateLimit limit);
+}
@@ -0,0 +1,78 @@
+package com.task.task1;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the
+ * primary. Needs a {@code LazyConnectionDataSourceProxy} in front, so the
+ * connection is fetched after the transaction's read-only flag is known.
+ * Reads fall back to the primary while {@link ReplicaLagMonitor} reports the
+ * replica as unhealthy or lagging, and inside {@link #onPrimary} for callers
+ * that must see their own writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Role { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private volatile boolean replicaAvailable = true;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Role.PRIMARY, primary, Role.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /** Runs {@code work} with every connection it opens taken from the primary. */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean wasPinned = pin();
+        try {
+            return work.get();
+        } finally {
+            restore(wasPinned);
+        }
+    }
+
+    /** Pins this thread to the primary; returns the previous state for {@link #restore}. */
+    static boolean pin() {
+        boolean wasPinned = pinned.get() != null;
+        pinned.set(Boolean.TRUE);
+        return wasPinned;
+    }
+
+    static void restore(boolean wasPinned) {
+        if (!wasPinned) {
+            pinned.remove();
+        }
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /** Connections the router can hand out across both roles, for sizing admission control. */
+    public int maximumPoolSize() {
+        return primary.getMaximumPoolSize() + replica.getMaximumPoolSize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaAvailable
+                && pinned.get() == null
+                ? Role.REPLICA : Role.PRIMARY;
+    }
+}
@@ -0,0 +1,103 @@
+package com.task.task1;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes for replica routing: after a user's successful write
+ * request (a booking, a hold), their reads stay on the primary for
+ * {@code app.datasource.replica.read-your-writes-window}, long enough for the
+ * replica to have replayed the write. Runs after Spring Security so the user
+ * is known.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final long windowNanos;
+    private final int maxUsers;
+    private final ConcurrentHashMap<String, Long> lastWrite = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(@Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window,
+                                @Value("${app.datasource.replica.read-your-writes-max-users:100000}") int maxUsers) {
+        this.windowNanos = window.toNanos();
+        this.maxUsers = maxUsers;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String user = auth == null || !auth.isAuthenticated() ? null : auth.getName();
+        if (user == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (isRead(request.getMethod())) {
+            if (!wroteRecently(user)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            boolean wasPinned = ReadWriteRoutingDataSource.pin();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ReadWriteRoutingDataSource.restore(wasPinned);
+            }
+            return;
+        }
+        // stamped before so a read racing the commit goes to the primary,
+        // and after so the window runs from the commit
+        recordWrite(user);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recordWrite(user);
+        }
+    }
+
+    boolean wroteRecently(String user) {
+        Long at = lastWrite.get(user);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+
+    private void recordWrite(String user) {
+        if (lastWrite.size() >= maxUsers && !lastWrite.containsKey(user)) {
+            evictExpired();
+        }
+        lastWrite.put(user, System.nanoTime());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrite.values().removeIf(at -> now - at >= windowNanos);
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
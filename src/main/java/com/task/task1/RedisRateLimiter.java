@@ -0,0 +1,79 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide buckets: the same GCRA step as {@link LocalRateLimiter}, run
+ * atomically in Redis against the Redis clock so node clock skew does not
+ * matter. If Redis is unavailable, this node falls back to its own buckets.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    // KEYS[1] bucket; ARGV interval and tolerance in micros, permits. Returns micros to wait, 0 if granted.
+    private static final RedisScript<Long> GCRA = RedisScript.of("""
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            local base = math.max(tat, now)
+            local wait = base - now + (permits - 1) * interval - tolerance
+            if wait > 0 then
+                return wait
+            end
+            local next = base + permits * interval
+            redis.call('SET', KEYS[1], string.format('%d', next), 'PX', math.ceil((next - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LocalRateLimiter fallback;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate,
+                            @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = new LocalRateLimiter(maxKeys);
+    }
+
+    @Override
+    public long tryAcquire(String user, int permits, RateLimit limit) {
+        try {
+            return acquire("ratelimit:user:" + user, permits, limit);
+        } catch (RuntimeException e) {
+            log.warn("Redis rate limit failed, using local buckets: {}", e.toString());
+            return fallback.tryAcquire(user, permits, limit);
+        }
+    }
+
+    @Override
+    public long tryAcquire(long showId, int permits, RateLimit limit) {
+        try {
+            return acquire("ratelimit:show:" + showId, permits, limit);
+        } catch (RuntimeException e) {
+            log.warn("Redis rate limit failed, using local buckets: {}", e.toString());
+            return fallback.tryAcquire(showId, permits, limit);
+        }
+    }
+
+    private long acquire(String key, int permits, RateLimit limit) {
+        Long waitMicros = redisTemplate.execute(GCRA, List.of(key),
+                String.valueOf(TimeUnit.NANOSECONDS.toMicros(limit.intervalNanos())),
+                String.valueOf(TimeUnit.NANOSECONDS.toMicros(limit.toleranceNanos())),
+                String.valueOf(permits));
+        return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+    }
+}
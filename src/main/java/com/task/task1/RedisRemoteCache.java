@@ -0,0 +1,100 @@
+package com.task.task1;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Redis tier of the catalog cache. Subscribing to invalidations is retried in
+ * the background, so the app still starts (serving from the near cache and the
+ * database) while Redis is unreachable.
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.remote", havingValue = "redis", matchIfMissing = true)
+public class RedisRemoteCache implements RemoteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRemoteCache.class);
+
+    static final String INVALIDATION_CHANNEL = "catalog:invalidate";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final MessageListener dispatcher = (message, pattern) -> {
+        List<String> keys = List.of(new String(message.getBody(), StandardCharsets.UTF_8).split("\n"));
+        listeners.forEach(listener -> listener.accept(keys));
+    };
+    private volatile boolean subscribed;
+
+    public RedisRemoteCache(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl));
+    }
+
+    @Override
+    public void evict(Collection<String> keys) {
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public void publishInvalidation(Collection<String> keys) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join("\n", keys));
+    }
+
+    @Override
+    public void onInvalidation(Consumer<Collection<String>> listener) {
+        listeners.add(listener);
+        subscribe();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.resubscribe-interval-ms:5000}")
+    public void subscribe() {
+        if (subscribed || listeners.isEmpty()) {
+            return;
+        }
+        try {
+            listenerContainer.addMessageListener(dispatcher, new ChannelTopic(INVALIDATION_CHANNEL));
+            subscribed = true;
+        } catch (RuntimeException e) {
+            log.warn("Catalog invalidation subscription failed, will retry: {}", e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+}
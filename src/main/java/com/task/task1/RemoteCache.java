@@ -0,0 +1,27 @@
+package com.task.task1;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Shared cache tier behind {@link CatalogCache}'s per-node near cache, plus the
+ * channel nodes use to tell each other which near-cache keys to drop. Also
+ * holds {@link BookingIdempotency}'s completed responses and in-flight claims.
+ * Redis in production; tests plug in an in-memory stub.
+ */
+public interface RemoteCache {
+
+    String get(String key);
+
+    void put(String key, String value, Duration ttl);
+
+    /** Stores the value only if the key is absent; returns whether it was stored. */
+    boolean putIfAbsent(String key, String value, Duration ttl);
+
+    void evict(Collection<String> keys);
+
+    void publishInvalidation(Collection<String> keys);
+
+    void onInvalidation(Consumer<Collection<String>> listener);
+}
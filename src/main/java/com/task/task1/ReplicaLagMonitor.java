@@ -0,0 +1,77 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica's replay lag and takes it out of rotation while the lag
+ * exceeds {@code app.datasource.replica.max-lag} or the replica cannot be
+ * reached; reads then go to the primary until it catches up. The default
+ * query reports zero lag when the replica has replayed everything it has
+ * received, so an idle primary does not look like a lagging replica.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final ReadWriteRoutingDataSource routing;
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routing,
+                             @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                             @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                             @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this.routing = routing;
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(1);
+        this.lagQuery = lagQuery.isBlank() ? POSTGRES_LAG_QUERY : lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean available;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            available = lagSeconds <= maxLagSeconds;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            available = false;
+            if (routing.isReplicaAvailable()) {
+                log.warn("Replica lag check failed, reading from the primary: {}", e.toString());
+            }
+        }
+        if (available != routing.isReplicaAvailable()) {
+            log.info("Replica {} (lag {}s)", available ? "back in rotation" : "out of rotation", lagSeconds);
+            routing.setReplicaAvailable(available);
+        }
+    }
+
+    /** Last measured replay lag in seconds; NaN if the replica could not be reached. */
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean available() {
+        return routing.isReplicaAvailable();
+    }
+}
@@ -0,0 +1,151 @@
+package com.task.task1;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous appender on a bounded lock-free ring: request threads claim a
+ * slot with one CAS and return, and a single daemon thread writes events to
+ * the attached appenders. Unlike logback's AsyncAppender there is no lock and
+ * a full buffer never blocks the caller: INFO and below are dropped (and
+ * counted), WARN and above are written synchronously instead.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long head;
+    private int capacity = 8192;
+    private int mask;
+    private AtomicReferenceArray<ILoggingEvent> slots;
+    private Thread writer;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        writer = new Thread(this::drain, "log-ring-" + getName());
+        writer.setDaemon(true);
+        super.start();
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // capture MDC, thread name and the formatted message before handing over
+        event.prepareForDeferredProcessing();
+        while (true) {
+            long claim = tail.get();
+            if (claim - head >= slots.length()) {
+                if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                    appenders.appendLoopOnAppenders(event);
+                } else {
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+            if (tail.compareAndSet(claim, claim + 1)) {
+                slots.set((int) (claim & mask), event);
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        long next = head;
+        while (isStarted() || next != tail.get()) {
+            int index = (int) (next & mask);
+            ILoggingEvent event = slots.get(index);
+            if (event == null) {
+                if (!isStarted() && next == tail.get()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            slots.set(index, null);
+            head = ++next;
+            try {
+                appenders.appendLoopOnAppenders(event);
+            } catch (RuntimeException e) {
+                addError("Appender failed for " + event, e);
+            }
+        }
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
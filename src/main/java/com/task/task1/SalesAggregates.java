@@ -0,0 +1,194 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the {@code show_sales} and {@code hourly_sales} rollups current from
+ * the booking event stream, so {@link SalesAnalytics} reads a row per show
+ * instead of every booking. Every counted booking id is recorded in
+ * {@code sales_counted_bookings} in the same transaction as the totals, and
+ * events for ids already there are skipped, so neither a redelivery after a
+ * rebalance, to this node or another, nor a replay of the topic from the
+ * start counts a booking twice. {@link #rebuild()} recomputes both tables
+ * from the bookings committed when it runs and marks exactly those as
+ * counted; one still uncommitted then is counted by its event later. The
+ * rebuild holds the {@code sales_watermark} row exclusively and the pipeline
+ * shares it, so no batch lands half inside a rebuild.
+ */
+@Component
+@Order(0)
+public class SalesAggregates implements BookingEventStage {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAggregates.class);
+
+    private static final String ADD_SHOW =
+            "UPDATE show_sales SET bookings = bookings + :bookings, seats_sold = seats_sold + :seats "
+                    + "WHERE show_id = :key";
+    private static final String INSERT_SHOW =
+            "INSERT INTO show_sales (show_id, bookings, seats_sold) VALUES (:key, :bookings, :seats)";
+    private static final String ADD_HOUR =
+            "UPDATE hourly_sales SET bookings = bookings + :bookings, seats_sold = seats_sold + :seats "
+                    + "WHERE hour_start = :key";
+    private static final String INSERT_HOUR =
+            "INSERT INTO hourly_sales (hour_start, bookings, seats_sold) VALUES (:key, :bookings, :seats)";
+    private static final String COUNTED =
+            "SELECT booking_id FROM sales_counted_bookings WHERE booking_id IN (:ids)";
+    private static final String MARK_COUNTED = "INSERT INTO sales_counted_bookings (booking_id) VALUES (?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String shareWatermark;
+
+    public SalesAggregates(NamedParameterJdbcTemplate jdbcTemplate) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        DataSource dataSource = jdbcTemplate.getJdbcTemplate().getDataSource();
+        // plain JDBC transactions: unlike the JPA manager they support the savepoints used in add()
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // H2, used in tests, has no shared row locks
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.shareWatermark = "SELECT rebuilt_through FROM sales_watermark WHERE id = 1 FOR "
+                + ("PostgreSQL".equals(product) ? "SHARE" : "UPDATE");
+    }
+
+    @Override
+    public void accept(Long showId, List<BookingConfirmedEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> apply(status, showId, events));
+    }
+
+    private void apply(TransactionStatus status, Long showId, List<BookingConfirmedEvent> events) {
+        // waits for a running rebuild, which may have counted these bookings already
+        jdbcTemplate.getJdbcTemplate().queryForList(shareWatermark, Long.class);
+        Set<Long> counted = new HashSet<>(jdbcTemplate.queryForList(COUNTED,
+                Map.of("ids", events.stream().map(BookingConfirmedEvent::bookingId).toList()), Long.class));
+        List<Object[]> marks = new ArrayList<>();
+        long bookings = 0;
+        long seats = 0;
+        Map<LocalDateTime, long[]> byHour = new TreeMap<>();
+        for (BookingConfirmedEvent event : events) {
+            if (counted.contains(event.bookingId())) {
+                // counted by a rebuild or an earlier delivery, possibly on another node
+                continue;
+            }
+            // a concurrent delivery elsewhere makes this insert fail and the batch be redelivered
+            marks.add(new Object[]{event.bookingId()});
+            bookings++;
+            seats += event.seatCount();
+            // events published before bookedAt existed only count towards the show
+            if (event.bookedAt() != null) {
+                long[] hour = byHour.computeIfAbsent(event.bookedAt().truncatedTo(ChronoUnit.HOURS),
+                        h -> new long[2]);
+                hour[0]++;
+                hour[1] += event.seatCount();
+            }
+        }
+        if (bookings == 0) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(MARK_COUNTED, marks);
+        add(status, ADD_SHOW, INSERT_SHOW, showId, bookings, seats);
+        byHour.forEach((hour, totals) -> add(status, ADD_HOUR, INSERT_HOUR, hour, totals[0], totals[1]));
+    }
+
+    public ShowSales show(Long showId) {
+        List<ShowSales> rows = jdbcTemplate.query(
+                "SELECT show_id, bookings, seats_sold FROM show_sales WHERE show_id = :showId",
+                Map.of("showId", showId),
+                (rs, i) -> new ShowSales(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+        return rows.isEmpty() ? new ShowSales(showId, 0, 0) : rows.get(0);
+    }
+
+    /** Recomputes both rollups from the committed bookings, in one transaction. */
+    public void rebuild() {
+        long start = System.nanoTime();
+        createWatermark();
+        Long watermark = transactionTemplate.execute(status -> {
+            JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+            // keeps the pipeline out until the rollups and the counted ids match again
+            jdbc.queryForObject("SELECT rebuilt_through FROM sales_watermark WHERE id = 1 FOR UPDATE", Long.class);
+            jdbc.update("DELETE FROM sales_counted_bookings");
+            jdbc.update("INSERT INTO sales_counted_bookings (booking_id) SELECT id FROM bookings");
+            // read through the counted ids: a booking committing after the line above is counted by its event
+            jdbc.update("DELETE FROM show_sales");
+            jdbc.update("INSERT INTO show_sales (show_id, bookings, seats_sold) "
+                    + "SELECT b.show_id, COUNT(*), COALESCE(SUM(b.seat_count), 0) "
+                    + "FROM sales_counted_bookings c JOIN bookings b ON b.id = c.booking_id GROUP BY b.show_id");
+            jdbc.update("DELETE FROM hourly_sales");
+            jdbc.update("INSERT INTO hourly_sales (hour_start, bookings, seats_sold) "
+                    + "SELECT DATE_TRUNC('hour', b.created_at), COUNT(*), COALESCE(SUM(b.seat_count), 0) "
+                    + "FROM sales_counted_bookings c JOIN bookings b ON b.id = c.booking_id "
+                    + "GROUP BY DATE_TRUNC('hour', b.created_at)");
+            long through = jdbc.queryForObject(
+                    "SELECT COALESCE(MAX(booking_id), 0) FROM sales_counted_bookings", Long.class);
+            jdbc.update("UPDATE sales_watermark SET rebuilt_through = ? WHERE id = 1", through);
+            return through;
+        });
+        log.info("Rebuilt sales rollups through booking {} in {} ms", watermark,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Fills the rollups on the first start after they were introduced. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        createWatermark();
+        Boolean empty = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM show_sales) AND EXISTS (SELECT 1 FROM bookings)", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            rebuild();
+        }
+    }
+
+    private void createWatermark() {
+        try {
+            jdbcTemplate.getJdbcTemplate().update(
+                    "INSERT INTO sales_watermark (id, rebuilt_through) SELECT 1, 0 "
+                            + "WHERE NOT EXISTS (SELECT 1 FROM sales_watermark)");
+        } catch (DuplicateKeyException e) {
+            // another node created it first
+        }
+    }
+
+    private void add(TransactionStatus status, String update, String insert, Object key, long bookings, long seats) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("bookings", bookings)
+                .addValue("seats", seats);
+        if (jdbcTemplate.update(update, params) > 0) {
+            return;
+        }
+        // a failed insert would abort the whole transaction on Postgres
+        Object savepoint = status.createSavepoint();
+        try {
+            jdbcTemplate.update(insert, params);
+            status.releaseSavepoint(savepoint);
+        } catch (DuplicateKeyException e) {
+            // another consumer created the row first; hours are shared across shows
+            status.rollbackToSavepoint(savepoint);
+            jdbcTemplate.update(update, params);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.task.task1;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sales reports read from the rollups kept by {@link SalesAggregates}; each
+ * query joins one row per show with the catalog, so its cost follows the
+ * number of shows rather than bookings.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SalesAnalytics {
+
+    private static final String SHOWS =
+            "SELECT s.id, e.id AS event_id, e.title, e.city, s.start_time, s.total_seats, "
+                    + "COALESCE(ss.bookings, 0) AS bookings, COALESCE(ss.seats_sold, 0) AS seats_sold "
+                    + "FROM shows s JOIN events e ON e.id = s.event_id "
+                    + "LEFT JOIN show_sales ss ON ss.show_id = s.id ";
+
+    private static final RowMapper<ShowOccupancy> SHOW_ROW = (rs, i) -> new ShowOccupancy(
+            rs.getLong("id"),
+            rs.getLong("event_id"),
+            rs.getString("title"),
+            rs.getString("city"),
+            rs.getTimestamp("start_time").toLocalDateTime(),
+            rs.getInt("total_seats"),
+            rs.getLong("bookings"),
+            rs.getLong("seats_sold"),
+            occupancy(rs.getLong("seats_sold"), rs.getLong("total_seats")));
+
+    private static final RowMapper<SalesBreakdown> GROUP_ROW = (rs, i) -> new SalesBreakdown(
+            rs.getObject("id", Long.class),
+            rs.getString("name"),
+            rs.getString("city"),
+            rs.getLong("shows"),
+            rs.getLong("total_seats"),
+            rs.getLong("bookings"),
+            rs.getLong("seats_sold"),
+            occupancy(rs.getLong("seats_sold"), rs.getLong("total_seats")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SalesAnalytics(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Every show, optionally of one event, in start-time order. */
+    public List<ShowOccupancy> shows(Long eventId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("eventId", eventId);
+        String where = eventId == null ? "" : "WHERE e.id = :eventId ";
+        return jdbcTemplate.query(SHOWS + where + "ORDER BY s.start_time, s.id", params, SHOW_ROW);
+    }
+
+    public List<ShowOccupancy> topShows(int limit) {
+        return jdbcTemplate.query(SHOWS + "ORDER BY seats_sold DESC, s.id LIMIT :limit",
+                new MapSqlParameterSource("limit", limit), SHOW_ROW);
+    }
+
+    public List<SalesBreakdown> byEvent() {
+        return jdbcTemplate.query(
+                "SELECT e.id, e.title AS name, e.city, COUNT(s.id) AS shows, "
+                        + "COALESCE(SUM(s.total_seats), 0) AS total_seats, "
+                        + "COALESCE(SUM(ss.bookings), 0) AS bookings, COALESCE(SUM(ss.seats_sold), 0) AS seats_sold "
+                        + "FROM events e LEFT JOIN shows s ON s.event_id = e.id "
+                        + "LEFT JOIN show_sales ss ON ss.show_id = s.id "
+                        + "GROUP BY e.id, e.title, e.city ORDER BY seats_sold DESC, e.id",
+                new MapSqlParameterSource(), GROUP_ROW);
+    }
+
+    public List<SalesBreakdown> byCity() {
+        return jdbcTemplate.query(
+                "SELECT CAST(NULL AS BIGINT) AS id, e.city AS name, e.city, COUNT(s.id) AS shows, "
+                        + "COALESCE(SUM(s.total_seats), 0) AS total_seats, "
+                        + "COALESCE(SUM(ss.bookings), 0) AS bookings, COALESCE(SUM(ss.seats_sold), 0) AS seats_sold "
+                        + "FROM shows s JOIN events e ON e.id = s.event_id "
+                        + "LEFT JOIN show_sales ss ON ss.show_id = s.id "
+                        + "GROUP BY e.city ORDER BY seats_sold DESC, e.city",
+                new MapSqlParameterSource(), GROUP_ROW);
+    }
+
+    /** Hours in {@code [from, to)} with at least one booking; either bound may be null. */
+    public List<HourlySales> hourly(LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from)
+                .addValue("to", to == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : to);
+        return jdbcTemplate.query(
+                "SELECT hour_start, bookings, seats_sold FROM hourly_sales "
+                        + "WHERE hour_start >= :from AND hour_start < :to ORDER BY hour_start",
+                params,
+                (rs, i) -> new HourlySales(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getLong(3)));
+    }
+
+    private static double occupancy(long seatsSold, long totalSeats) {
+        return totalSeats == 0 ? 0 : (double) seatsSold / totalSeats;
+    }
+}
@@ -0,0 +1,16 @@
+package com.task.task1;
+
+/**
+ * Totals over a group of shows; {@code id} is the event id when grouped by
+ * event and null when grouped by city.
+ */
+public record SalesBreakdown(
+        Long id,
+        String name,
+        String city,
+        long shows,
+        long totalSeats,
+        long bookings,
+        long seatsSold,
+        double occupancy
+) {}
@@ -0,0 +1,22 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A booking already counted in the sales rollups, so {@link SalesAggregates}
+ * counts each booking once however often, and on whichever node, its event
+ * is delivered.
+ */
+@Entity
+@Table(name = "sales_counted_bookings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesCountedBooking {
+
+    @Id
+    private Long bookingId;
+}
@@ -0,0 +1,25 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest booking id the last {@link SalesAggregates#rebuild()} counted. A
+ * single row with id 1, which the rebuild updates while holding it
+ * exclusively and the pipeline locks shared, so the two never interleave.
+ */
+@Entity
+@Table(name = "sales_watermark")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesWatermark {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long rebuiltThrough;
+}
@@ -0,0 +1,43 @@
+package com.task.task1;
+
+/**
+ * Keeps {@code shows.booked_seats} in step with bookings. {@link SeatInventory}
+ * picks the seats in memory either way; the strategy decides whether the show
+ * row is also a guard against overselling, checked inside the booking
+ * transaction, or only a write-behind copy. Chosen per deployment with
+ * {@code app.booking.seat-strategy}: {@code inventory} (default),
+ * {@code pessimistic}, {@code conditional}, {@code optimistic} or
+ * {@code sharded}.
+ * <p>
+ * The database strategies guard the seat <em>count</em> only. Seat labels
+ * still come from this node's {@link SeatInventory}, and nothing in the
+ * database stops two nodes handing out the same label, so every strategy
+ * requires a single node to book any given show (route by show id when
+ * running several). Across nodes the database strategies prevent
+ * overselling, not double-assigned seats.
+ */
+public interface SeatCounter {
+
+    /**
+     * Claims {@code seatCount} seats on the show row within the caller's transaction.
+     *
+     * @return false if the row does not have that many seats left
+     */
+    boolean claim(Long showId, int seatCount);
+
+    /** Called once the booking transaction has committed. */
+    default void committed(Long showId, int seatCount) {
+    }
+
+    /**
+     * Seats taken on the show as this strategy counts them, for a show this
+     * node has not loaded; {@code recorded} is {@code shows.booked_seats}.
+     */
+    default int bookedSeats(Long showId, int recorded) {
+        return recorded;
+    }
+
+    /** Called once an admin changed the show's {@code total_seats}. */
+    default void resized(Long showId) {
+    }
+}
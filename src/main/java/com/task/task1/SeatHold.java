@@ -0,0 +1,76 @@
+package com.task.task1;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Seats reserved in {@link SeatInventory} for one user until the hold is
+ * confirmed, released or expires. The state transitions are CAS-guarded so
+ * confirmation and expiry cannot both win.
+ */
+public class SeatHold {
+
+    enum State { ACTIVE, CONFIRMING, DONE }
+
+    private final String id;
+    private final Long showId;
+    private final String userEmail;
+    private final int[] seats;
+    private final String seatNumbers;
+    private final LocalDateTime expiresAt;
+    private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+    private volatile TimingWheel.Timeout timeout;
+
+    public SeatHold(String id, Long showId, String userEmail, int[] seats, String seatNumbers, LocalDateTime expiresAt) {
+        this.id = id;
+        this.showId = showId;
+        this.userEmail = userEmail;
+        this.seats = seats;
+        this.seatNumbers = seatNumbers;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public int[] getSeats() {
+        return seats;
+    }
+
+    public String getSeatNumbers() {
+        return seatNumbers;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    boolean transition(State from, State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    void setTimeout(TimingWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    void cancelTimeout() {
+        TimingWheel.Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold[id=" + id + ", show=" + showId + ", seats=" + seatNumbers + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.task.task1;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shows/{showId}/holds")
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+    private final WaitingRoom waitingRoom;
+
+    public SeatHoldController(SeatHoldService seatHoldService, WaitingRoom waitingRoom) {
+        this.seatHoldService = seatHoldService;
+        this.waitingRoom = waitingRoom;
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping
+    public HoldResponse create(@PathVariable Long showId, @RequestBody HoldRequest request,
+                               @RequestHeader(name = WaitingRoom.TICKET_HEADER, required = false) String ticket) {
+        waitingRoom.checkAdmission(List.of(showId), ticket);
+        long start = System.nanoTime();
+        HoldResponse response;
+        try {
+            response = seatHoldService.hold(showId, request);
+        } finally {
+            waitingRoom.recordCommit(showId, System.nanoTime() - start);
+        }
+        waitingRoom.consume(List.of(showId), ticket);
+        return response;
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/{holdId}/confirm")
+    public BookingResponse confirm(@PathVariable Long showId, @PathVariable String holdId) {
+        return seatHoldService.confirm(showId, holdId);
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @DeleteMapping("/{holdId}")
+    public void release(@PathVariable Long showId, @PathVariable String holdId) {
+        seatHoldService.release(showId, holdId);
+    }
+}
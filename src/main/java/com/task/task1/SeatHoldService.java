@@ -0,0 +1,121 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Temporary seat holds for checkout. A hold reserves seats in the in-memory
+ * inventory without any open database transaction; expired holds are released
+ * by a {@link TimingWheel} instead of a periodic scan.
+ */
+@Service
+public class SeatHoldService {
+
+    private final SeatInventory seatInventory;
+    private final BookingService bookingService;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final TimingWheel<SeatHold> expiryWheel;
+
+    @Autowired
+    public SeatHoldService(SeatInventory seatInventory,
+                           BookingService bookingService,
+                           @Value("${app.holds.ttl:10m}") Duration ttl,
+                           @Value("${app.holds.tick-ms:1000}") long tickMillis) {
+        this.seatInventory = seatInventory;
+        this.bookingService = bookingService;
+        this.ttlMillis = ttl.toMillis();
+        this.expiryWheel = new TimingWheel<>("seat-hold-expiry", tickMillis, 512, this::expire);
+    }
+
+    /** Expiry driven by {@code nanoClock} and {@link #tick()} only. */
+    SeatHoldService(SeatInventory seatInventory, BookingService bookingService, Duration ttl, long tickMillis,
+                    LongSupplier nanoClock) {
+        this.seatInventory = seatInventory;
+        this.bookingService = bookingService;
+        this.ttlMillis = ttl.toMillis();
+        this.expiryWheel = new TimingWheel<>("seat-hold-expiry", tickMillis, 512, this::expire, nanoClock, false);
+    }
+
+    void tick() {
+        expiryWheel.advance();
+    }
+
+    public HoldResponse hold(Long showId, HoldRequest request) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        int[] seats = request.seats() != null && !request.seats().isEmpty()
+                ? seatInventory.tryReserve(showId, request.seats())
+                : seatInventory.tryReserve(showId, request.seatCount());
+        if (seats == null) {
+            throw new IllegalStateException("Not enough seats available");
+        }
+
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), showId, email, seats,
+                seatInventory.labels(showId, seats), LocalDateTime.now().plus(Duration.ofMillis(ttlMillis)));
+        holds.put(hold.getId(), hold);
+        hold.setTimeout(expiryWheel.schedule(hold, ttlMillis));
+
+        return new HoldResponse(hold.getId(), showId, hold.getSeatNumbers(), hold.getExpiresAt());
+    }
+
+    public BookingResponse confirm(Long showId, String holdId) {
+        SeatHold hold = ownedHold(showId, holdId);
+        if (!hold.transition(SeatHold.State.ACTIVE, SeatHold.State.CONFIRMING)) {
+            throw new IllegalStateException("Hold is no longer active");
+        }
+        BookingResponse response;
+        try {
+            response = bookingService.confirm(hold);
+        } catch (RuntimeException e) {
+            hold.transition(SeatHold.State.CONFIRMING, SeatHold.State.ACTIVE);
+            throw e;
+        }
+        hold.transition(SeatHold.State.CONFIRMING, SeatHold.State.DONE);
+        hold.cancelTimeout();
+        holds.remove(holdId);
+        return response;
+    }
+
+    public void release(Long showId, String holdId) {
+        SeatHold hold = ownedHold(showId, holdId);
+        if (hold.transition(SeatHold.State.ACTIVE, SeatHold.State.DONE)) {
+            hold.cancelTimeout();
+            holds.remove(holdId);
+            seatInventory.release(showId, hold.getSeats());
+        }
+    }
+
+    // A hold mid-confirmation when its timer fires is re-checked on the next tick.
+    void expire(SeatHold hold) {
+        if (hold.transition(SeatHold.State.ACTIVE, SeatHold.State.DONE)) {
+            holds.remove(hold.getId());
+            seatInventory.release(hold.getShowId(), hold.getSeats());
+        } else if (holds.containsKey(hold.getId())) {
+            hold.setTimeout(expiryWheel.schedule(hold, 0));
+        }
+    }
+
+    private SeatHold ownedHold(Long showId, String holdId) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || !hold.getShowId().equals(showId) || !hold.getUserEmail().equals(email)) {
+            throw new IllegalArgumentException("Hold not found");
+        }
+        return hold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.close();
+    }
+}
@@ -0,0 +1,313 @@
+package com.task.task1;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * In-memory seat state per show. Reservations first take a CAS decrement on
+ * the show's available counter, so requests that cannot fit are rejected
+ * without contention, then claim concrete seats in the show's {@link SeatMap}.
+ * Nothing waits on a database row lock. Committed seat counts are written back
+ * to {@code shows.booked_seats} in batches by {@link #flush()}.
+ */
+@Component
+public class SeatInventory {
+
+    private final ShowRepository showRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, ShowSeats> shows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    public SeatInventory(ShowRepository showRepository,
+                         BookingRepository bookingRepository,
+                         TransactionTemplate transactionTemplate) {
+        this.showRepository = showRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Seat state must reflect every committed booking, so it never loads from a replica.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ReadWriteRoutingDataSource.onPrimary(() -> {
+            rebuildFromPrimary();
+            return null;
+        });
+    }
+
+    private void rebuildFromPrimary() {
+        List<Show> all = showRepository.findAll();
+        Map<Long, ShowSeats> loaded = new HashMap<>();
+        for (Show show : all) {
+            loaded.put(show.getId(), new ShowSeats(new SeatMap(show.getTotalSeats(), show.getSeatsPerRow())));
+        }
+        for (Object[] row : bookingRepository.findAllSeatNumbers()) {
+            ShowSeats seats = loaded.get((Long) row[0]);
+            if (seats != null) {
+                seats.restore((String) row[1]);
+            }
+        }
+        for (Show show : all) {
+            ShowSeats seats = loaded.get(show.getId());
+            seats.available.set(availableSeats(show, seats.seatMap));
+            shows.putIfAbsent(show.getId(), seats);
+        }
+    }
+
+    /**
+     * Reserves the best available {@code seatCount} seats.
+     *
+     * @return the reserved seat indexes, or {@code null} if the show does not have enough free seats
+     */
+    public int[] tryReserve(Long showId, int seatCount) {
+        if (seatCount <= 0) {
+            return null;
+        }
+        ShowSeats seats = seats(showId);
+        if (!seats.acquire(seatCount)) {
+            return null;
+        }
+        synchronized (seats) {
+            int[] taken = seats.seatMap.takeBestAvailable(seatCount);
+            if (taken != null) {
+                return taken;
+            }
+        }
+        seats.available.addAndGet(seatCount);
+        return null;
+    }
+
+    /**
+     * Reserves exactly the seats with the given labels.
+     *
+     * @return the reserved seat indexes, or {@code null} if any of them is already taken
+     */
+    public int[] tryReserve(Long showId, List<String> seatLabels) {
+        ShowSeats seats = seats(showId);
+        int[] requested = new int[seatLabels.size()];
+        synchronized (seats) {
+            for (int i = 0; i < requested.length; i++) {
+                requested[i] = seats.seatMap.parse(seatLabels.get(i));
+                if (requested[i] < 0) {
+                    throw new IllegalArgumentException("Unknown seat " + seatLabels.get(i));
+                }
+            }
+        }
+        if (requested.length == 0 || !seats.acquire(requested.length)) {
+            return null;
+        }
+        synchronized (seats) {
+            if (seats.seatMap.take(requested)) {
+                return requested;
+            }
+        }
+        seats.available.addAndGet(requested.length);
+        return null;
+    }
+
+    public void release(Long showId, int[] seats) {
+        ShowSeats showSeats = shows.get(showId);
+        if (showSeats == null) {
+            return;
+        }
+        synchronized (showSeats) {
+            showSeats.seatMap.release(seats);
+        }
+        showSeats.available.addAndGet(seats.length);
+    }
+
+    /**
+     * Records seats of a committed booking so the next flush persists them.
+     */
+    public void commit(Long showId, int seatCount) {
+        pending.computeIfAbsent(showId, id -> new AtomicInteger()).addAndGet(seatCount);
+    }
+
+    public int availableSeats(Long showId) {
+        return seats(showId).available.get();
+    }
+
+    /** Loads the show if needed; unknown ids are looked up again each time, never cached. */
+    public boolean exists(Long showId) {
+        try {
+            seats(showId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Seats taken (booked or held) as this node sees them, or {@code fallback}
+     * for a show that is not loaded; never triggers a load.
+     */
+    public int bookedSeats(Long showId, IntSupplier fallback) {
+        ShowSeats seats = shows.get(showId);
+        return seats == null ? fallback.getAsInt() : seats.seatMap.capacity() - seats.available.get();
+    }
+
+    public String labels(Long showId, int[] seats) {
+        ShowSeats showSeats = seats(showId);
+        synchronized (showSeats) {
+            return showSeats.seatMap.labels(seats);
+        }
+    }
+
+    public SeatMapResponse snapshot(Long showId) {
+        ShowSeats seats = seats(showId);
+        synchronized (seats) {
+            SeatMap map = seats.seatMap;
+            return new SeatMapResponse(showId, map.rows(), map.seatsPerRow(), map.capacity(),
+                    seats.available.get(), map.encode());
+        }
+    }
+
+    public void register(Show show) {
+        ShowSeats seats = new ShowSeats(new SeatMap(show.getTotalSeats(), show.getSeatsPerRow()));
+        seats.available.set(show.getTotalSeats() - show.getBookedSeats());
+        shows.put(show.getId(), seats);
+    }
+
+    /**
+     * Changes the show's capacity, unless that would cut off a seat that is
+     * booked or held, or leave fewer seats than are taken.
+     *
+     * @return false if the show is too full to shrink that far
+     */
+    public boolean resize(Long showId, int newTotal) {
+        ShowSeats seats = seats(showId);
+        synchronized (seats) {
+            if (seats.seatMap.anyTakenFrom(newTotal)) {
+                return false;
+            }
+            int delta = newTotal - seats.seatMap.capacity();
+            int available;
+            do {
+                // reservations decrement the counter before they pick seats, so it may be lower than the map shows
+                available = seats.available.get();
+                if (available + delta < 0) {
+                    return false;
+                }
+            } while (!seats.available.compareAndSet(available, available + delta));
+            seats.seatMap = seats.seatMap.resize(newTotal);
+            return true;
+        }
+    }
+
+    public void remove(Long showId) {
+        shows.remove(showId);
+        pending.remove(showId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> batch = new HashMap<>();
+        for (Long showId : pending.keySet()) {
+            int delta = pending.get(showId).getAndSet(0);
+            if (delta != 0) {
+                batch.put(showId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batch.forEach(showRepository::incrementBookedSeats));
+        } catch (RuntimeException e) {
+            batch.forEach(this::commit);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private ShowSeats seats(Long showId) {
+        ShowSeats seats = shows.get(showId);
+        if (seats != null) {
+            return seats;
+        }
+        return shows.computeIfAbsent(showId, id -> ReadWriteRoutingDataSource.onPrimary(() -> load(id)));
+    }
+
+    private ShowSeats load(Long showId) {
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new IllegalArgumentException("Show not found"));
+        ShowSeats seats = new ShowSeats(new SeatMap(show.getTotalSeats(), show.getSeatsPerRow()));
+        for (String seatNumbers : bookingRepository.findSeatNumbersByShowId(showId)) {
+            seats.restore(seatNumbers);
+        }
+        seats.available.set(availableSeats(show, seats.seatMap));
+        return seats;
+    }
+
+    // A crash can lose unflushed deltas, so trust whichever of the show row and
+    // the bookings table has seen more seats.
+    private int availableSeats(Show show, SeatMap seatMap) {
+        int booked = Math.max(show.getBookedSeats() + pendingSeats(show.getId()), seatMap.booked());
+        return Math.max(0, show.getTotalSeats() - booked);
+    }
+
+    private int pendingSeats(Long showId) {
+        AtomicInteger delta = pending.get(showId);
+        return delta == null ? 0 : delta.get();
+    }
+
+    private static final class ShowSeats {
+
+        final AtomicInteger available = new AtomicInteger();
+        SeatMap seatMap;
+
+        ShowSeats(SeatMap seatMap) {
+            this.seatMap = seatMap;
+        }
+
+        boolean acquire(int seatCount) {
+            while (true) {
+                int current = available.get();
+                if (current < seatCount) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - seatCount)) {
+                    return true;
+                }
+            }
+        }
+
+        // Bookings made before seat maps existed carry "AUTO_<n>" and get the best seats left.
+        void restore(String seatNumbers) {
+            if (seatNumbers == null || seatNumbers.isEmpty()) {
+                return;
+            }
+            if (seatNumbers.startsWith("AUTO_")) {
+                seatMap.takeBestAvailable(Integer.parseInt(seatNumbers.substring(5)));
+                return;
+            }
+            String[] labels = seatNumbers.split(",");
+            int[] seats = new int[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                seats[i] = seatMap.parse(labels[i]);
+            }
+            seatMap.take(seats);
+        }
+    }
+}
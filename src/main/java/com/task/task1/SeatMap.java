@@ -0,0 +1,256 @@
+package com.task.task1;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Seat occupancy for one auditorium as a bitset, one bit per seat in row-major
+ * order. Seat {@code i} sits in row {@code i / seatsPerRow}; labels are row
+ * letters plus a 1-based seat number ("A1", "B12", "AA3").
+ * <p>
+ * Not thread-safe: callers serialize access per show.
+ */
+public class SeatMap {
+
+    public static final int DEFAULT_SEATS_PER_ROW = 20;
+
+    private final int capacity;
+    private final int seatsPerRow;
+    private final int rows;
+    private final long[] words;
+    private int booked;
+
+    public SeatMap(int capacity, Integer seatsPerRow) {
+        this.capacity = Math.max(0, capacity);
+        this.seatsPerRow = seatsPerRow == null || seatsPerRow <= 0 ? DEFAULT_SEATS_PER_ROW : seatsPerRow;
+        this.rows = (this.capacity + this.seatsPerRow - 1) / this.seatsPerRow;
+        this.words = new long[(this.capacity + 63) >>> 6];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int seatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int booked() {
+        return booked;
+    }
+
+    public int free() {
+        return capacity - booked;
+    }
+
+    public boolean isTaken(int seat) {
+        return (words[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    /** Whether any seat at or after {@code seat} is taken. */
+    public boolean anyTakenFrom(int seat) {
+        return nextTaken(Math.max(0, seat), capacity) < capacity;
+    }
+
+    /**
+     * Takes exactly the given seats, or none of them if any is out of range or taken.
+     */
+    public boolean take(int[] seats) {
+        for (int i = 0; i < seats.length; i++) {
+            int seat = seats[i];
+            if (seat < 0 || seat >= capacity || isTaken(seat)) {
+                for (int j = 0; j < i; j++) {
+                    clear(seats[j]);
+                }
+                return false;
+            }
+            set(seat);
+        }
+        return true;
+    }
+
+    /**
+     * Takes {@code count} seats, preferring a contiguous block in a single row
+     * with rows tried from the middle outwards. Falls back to the first free
+     * seats in the same row order when no row has a wide enough gap.
+     *
+     * @return the seat indexes taken, or {@code null} if fewer than {@code count} are free
+     */
+    public int[] takeBestAvailable(int count) {
+        if (count <= 0 || count > free()) {
+            return null;
+        }
+        int[] seats = new int[count];
+        if (count <= seatsPerRow) {
+            for (int r = 0; r < rows; r++) {
+                int row = rowByPreference(r);
+                int start = findRun(rowStart(row), rowEnd(row), count);
+                if (start >= 0) {
+                    for (int i = 0; i < count; i++) {
+                        seats[i] = start + i;
+                        set(start + i);
+                    }
+                    return seats;
+                }
+            }
+        }
+        int n = 0;
+        for (int r = 0; r < rows && n < count; r++) {
+            int row = rowByPreference(r);
+            int end = rowEnd(row);
+            for (int seat = nextFree(rowStart(row), end); seat < end && n < count; seat = nextFree(seat + 1, end)) {
+                seats[n++] = seat;
+                set(seat);
+            }
+        }
+        return seats;
+    }
+
+    public void release(int[] seats) {
+        for (int seat : seats) {
+            if (seat >= 0 && seat < capacity && isTaken(seat)) {
+                clear(seat);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy sized for a new capacity, keeping taken seats that still fit.
+     */
+    public SeatMap resize(int newCapacity) {
+        SeatMap copy = new SeatMap(newCapacity, seatsPerRow);
+        int limit = Math.min(capacity, copy.capacity);
+        for (int seat = nextTaken(0, limit); seat < limit; seat = nextTaken(seat + 1, limit)) {
+            copy.set(seat);
+        }
+        return copy;
+    }
+
+    public String label(int seat) {
+        int row = seat / seatsPerRow;
+        StringBuilder letters = new StringBuilder(4);
+        for (int r = row + 1; r > 0; r = (r - 1) / 26) {
+            letters.append((char) ('A' + (r - 1) % 26));
+        }
+        return letters.reverse().append(seat % seatsPerRow + 1).toString();
+    }
+
+    public String labels(int[] seats) {
+        StringBuilder sb = new StringBuilder(seats.length * 4);
+        for (int seat : seats) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(label(seat));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses a label such as "B12" into a seat index, or -1 if it is not a seat in this map.
+     */
+    public int parse(String label) {
+        if (label == null) {
+            return -1;
+        }
+        int len = label.length();
+        int i = 0;
+        int row = 0;
+        while (i < len && Character.isLetter(label.charAt(i))) {
+            row = row * 26 + (Character.toUpperCase(label.charAt(i)) - 'A' + 1);
+            i++;
+        }
+        if (i == 0 || i == len || len - i > 9) {
+            return -1;
+        }
+        int number = 0;
+        for (int j = i; j < len; j++) {
+            char c = label.charAt(j);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        if (number < 1 || number > seatsPerRow || row < 1 || row > rows) {
+            return -1;
+        }
+        int seat = (row - 1) * seatsPerRow + number - 1;
+        return seat < capacity ? seat : -1;
+    }
+
+    /**
+     * Occupancy bits as little-endian bytes, Base64 encoded, for clients to render the map.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), (capacity + 7) >>> 3));
+    }
+
+    private int rowByPreference(int r) {
+        int middle = (rows - 1) / 2;
+        int offset = (r + 1) / 2;
+        int row = (r & 1) == 0 ? middle - offset : middle + offset;
+        return row < 0 || row >= rows ? r : row;
+    }
+
+    private int rowStart(int row) {
+        return row * seatsPerRow;
+    }
+
+    private int rowEnd(int row) {
+        return Math.min(capacity, (row + 1) * seatsPerRow);
+    }
+
+    private int findRun(int from, int end, int count) {
+        int seat = nextFree(from, end);
+        while (seat + count <= end) {
+            int taken = nextTaken(seat, seat + count);
+            if (taken >= seat + count) {
+                return seat;
+            }
+            seat = nextFree(taken + 1, end);
+        }
+        return -1;
+    }
+
+    private int nextFree(int from, int end) {
+        while (from < end) {
+            long word = ~words[from >>> 6] & (-1L << from);
+            if (word != 0) {
+                return Math.min(end, (from & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            from = (from & ~63) + 64;
+        }
+        return end;
+    }
+
+    private int nextTaken(int from, int end) {
+        while (from < end) {
+            long word = words[from >>> 6] & (-1L << from);
+            if (word != 0) {
+                return Math.min(end, (from & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            from = (from & ~63) + 64;
+        }
+        return end;
+    }
+
+    private void set(int seat) {
+        words[seat >>> 6] |= 1L << seat;
+        booked++;
+    }
+
+    private void clear(int seat) {
+        words[seat >>> 6] &= ~(1L << seat);
+        booked--;
+    }
+}
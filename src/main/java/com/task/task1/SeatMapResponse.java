@@ -0,0 +1,14 @@
+package com.task.task1;
+
+/**
+ * {@code occupied} is the seat bitset (bit {@code i} set when seat {@code i} is taken)
+ * as little-endian bytes in Base64.
+ */
+public record SeatMapResponse(
+        Long showId,
+        int rows,
+        int seatsPerRow,
+        int totalSeats,
+        int availableSeats,
+        String occupied
+) {}
@@ -0,0 +1,315 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits a show's seat count over up to {@code app.booking.shards} rows in
+ * {@code show_seat_shards}, each guarded like {@link ConditionalSeatCounter}
+ * guards the show row. A booking starts at a random shard and takes the first
+ * one with room, so concurrent bookings for one show mostly lock different
+ * rows; one too large for any single shard takes seats from several.
+ * <p>
+ * A transaction only locks new shards above the highest one it already
+ * holds, so shards are always locked in ascending order and two transactions
+ * cannot deadlock on them, even when a group commit claims many times.
+ * <p>
+ * Shards are cut from {@code shows.total_seats} on a show's first booking,
+ * with at least {@code app.booking.shard-min-seats} seats each, so small shows
+ * keep a single row. {@code shows.booked_seats} is no longer written per
+ * booking, so readers go through {@link #bookedSeats(Long, int)}, which sums
+ * the shards. Every {@code app.booking.shard-rollup-ms}, {@link #rollUp()}
+ * copies the shard totals into the show row and applies capacity changes, but
+ * only for the shows this node claimed seats on or resized since the last pass.
+ */
+@Component
+@ConditionalOnProperty(name = "app.booking.seat-strategy", havingValue = "sharded")
+public class ShardedSeatCounter implements SeatCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedSeatCounter.class);
+
+    private static final String FREE =
+            "SELECT capacity - booked FROM show_seat_shards WHERE show_id = :id ORDER BY shard";
+    private static final String TAKE =
+            "UPDATE show_seat_shards SET booked = booked + :seats "
+                    + "WHERE show_id = :id AND shard = :shard AND capacity - booked >= :seats";
+    private static final String GIVE_BACK =
+            "UPDATE show_seat_shards SET booked = booked - :seats WHERE show_id = :id AND shard = :shard";
+    private static final String READ_SHOW =
+            "SELECT total_seats, booked_seats FROM shows WHERE id = :id";
+    private static final String INSERT_SHARD =
+            "INSERT INTO show_seat_shards (show_id, shard, capacity, booked) VALUES (:id, :shard, :capacity, :booked)";
+    private static final String BOOKED =
+            "SELECT SUM(booked) FROM show_seat_shards WHERE show_id = :id";
+    private static final String ROLL_UP =
+            "UPDATE shows SET booked_seats = (SELECT SUM(booked) FROM show_seat_shards WHERE show_id = shows.id) "
+                    + "WHERE id = :id AND EXISTS (SELECT 1 FROM show_seat_shards WHERE show_id = shows.id)";
+    private static final String CAPACITY_CHANGE =
+            "SELECT s.total_seats - SUM(sh.capacity) FROM shows s "
+                    + "JOIN show_seat_shards sh ON sh.show_id = s.id WHERE s.id = :id GROUP BY s.total_seats";
+    private static final String RESIZE =
+            "UPDATE show_seat_shards SET capacity = capacity + :delta "
+                    + "WHERE show_id = :id AND shard = :shard AND capacity + :delta >= booked";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookingMetrics metrics;
+    private final TransactionTemplate separateTransaction;
+    private final int maxShards;
+    private final int minShardSeats;
+    private final int maxAttempts;
+
+    // shows to roll up on the next pass, and shrinks already warned about
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> shrinkWarned = new ConcurrentHashMap<>();
+
+    public ShardedSeatCounter(NamedParameterJdbcTemplate jdbcTemplate,
+                              BookingMetrics metrics,
+                              @Value("${app.booking.shards:8}") int maxShards,
+                              @Value("${app.booking.shard-min-seats:500}") int minShardSeats,
+                              @Value("${app.booking.sharded.max-attempts:5}") int maxAttempts) {
+        if (maxShards < 1 || minShardSeats < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException(
+                    "app.booking.shards, shard-min-seats and sharded.max-attempts must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.maxShards = maxShards;
+        this.minShardSeats = minShardSeats;
+        this.maxAttempts = maxAttempts;
+        // shards are created outside the booking transaction, so a node losing
+        // the creation race does not roll back its booking
+        this.separateTransaction = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getJdbcTemplate().getDataSource()));
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean claim(Long showId, int seatCount) {
+        BitSet held = held(showId);
+        for (int attempt = 1; ; attempt++) {
+            int[] free = free(showId);
+            int floor = Math.max(0, held.length() - 1);
+            long total = 0;
+            long lockable = 0;
+            for (int shard = 0; shard < free.length; shard++) {
+                total += free[shard];
+                if (shard >= floor || held.get(shard)) {
+                    lockable += free[shard];
+                }
+            }
+            if (total < seatCount) {
+                return false;
+            }
+            if (lockable < seatCount) {
+                // the seats left sit below shards this transaction holds; locking them could deadlock
+                metrics.conflict(false);
+                throw new IllegalStateException("Seat count changed concurrently, please retry");
+            }
+            if (take(showId, seatCount, free, held, floor)) {
+                dirty.add(showId);
+                return true;
+            }
+            if (attempt == maxAttempts) {
+                metrics.conflict(false);
+                throw new IllegalStateException("Seat count changed concurrently, please retry");
+            }
+            metrics.conflict(true);
+        }
+    }
+
+    /** Exact seats taken, summed over the shards, or {@code recorded} for a show not sharded yet. */
+    @Override
+    public int bookedSeats(Long showId, int recorded) {
+        Integer booked = jdbcTemplate.queryForObject(BOOKED, new MapSqlParameterSource("id", showId), Integer.class);
+        return booked == null ? recorded : booked;
+    }
+
+    @Override
+    public void resized(Long showId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dirty.add(showId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirty.add(showId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.booking.shard-rollup-ms:1000}")
+    public void rollUp() {
+        for (Long showId : List.copyOf(dirty)) {
+            dirty.remove(showId);
+            try {
+                // one show per transaction, so a pass never holds one show's row while locking another's shards
+                separateTransaction.executeWithoutResult(status -> rollUp(showId));
+            } catch (RuntimeException e) {
+                dirty.add(showId);
+                throw e;
+            }
+        }
+    }
+
+    private void rollUp(Long showId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", showId);
+        List<Integer> changes = jdbcTemplate.queryForList(CAPACITY_CHANGE, params, Integer.class);
+        if (!changes.isEmpty() && changes.get(0) != 0) {
+            resize(showId, changes.get(0));
+        }
+        jdbcTemplate.update(ROLL_UP, params);
+    }
+
+    /**
+     * Takes seats from shards this transaction already holds first, then from
+     * shards at or above {@code floor}, lowest first, so new locks only ever go up.
+     */
+    private boolean take(Long showId, int seatCount, int[] free, BitSet held, int floor) {
+        for (int shard = held.nextSetBit(0); shard >= 0; shard = held.nextSetBit(shard + 1)) {
+            if (free[shard] >= seatCount) {
+                return update(TAKE, showId, shard, seatCount);
+            }
+        }
+        int start = floor + ThreadLocalRandom.current().nextInt(free.length - floor);
+        for (int i = 0; i < free.length - floor; i++) {
+            int shard = floor + (start - floor + i) % (free.length - floor);
+            if (free[shard] >= seatCount) {
+                if (!update(TAKE, showId, shard, seatCount)) {
+                    return false;
+                }
+                held.set(shard);
+                return true;
+            }
+        }
+        // no single shard has room: spread the booking in shard order, undoing it if a shard filled up meanwhile
+        List<int[]> taken = new ArrayList<>();
+        int needed = seatCount;
+        for (int shard = 0; shard < free.length && needed > 0; shard++) {
+            int seats = shard >= floor || held.get(shard) ? Math.min(free[shard], needed) : 0;
+            if (seats == 0) {
+                continue;
+            }
+            if (!update(TAKE, showId, shard, seats)) {
+                taken.forEach(claim -> update(GIVE_BACK, showId, claim[0], claim[1]));
+                return false;
+            }
+            held.set(shard);
+            taken.add(new int[]{shard, seats});
+            needed -= seats;
+        }
+        return needed == 0;
+    }
+
+    /**
+     * Shards of the show locked by the current transaction; a throwaway set
+     * outside one, where every update commits on its own.
+     */
+    @SuppressWarnings("unchecked")
+    private BitSet held(Long showId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new BitSet();
+        }
+        Map<Long, BitSet> byShow = (Map<Long, BitSet>) TransactionSynchronizationManager.getResource(this);
+        if (byShow == null) {
+            Map<Long, BitSet> bound = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ShardedSeatCounter.this);
+                }
+            });
+            byShow = bound;
+        }
+        return byShow.computeIfAbsent(showId, id -> new BitSet());
+    }
+
+    private int[] free(Long showId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", showId);
+        List<Integer> free = jdbcTemplate.queryForList(FREE, params, Integer.class);
+        if (free.isEmpty()) {
+            createShards(showId);
+            free = jdbcTemplate.queryForList(FREE, params, Integer.class);
+        }
+        return free.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void createShards(Long showId) {
+        int[] show;
+        try {
+            show = jdbcTemplate.queryForObject(READ_SHOW, new MapSqlParameterSource("id", showId),
+                    (rs, i) -> new int[]{rs.getInt("total_seats"), rs.getInt("booked_seats")});
+        } catch (EmptyResultDataAccessException e) {
+            throw new IllegalArgumentException("Show not found");
+        }
+        int shards = Math.max(1, Math.min(maxShards, show[0] / minShardSeats));
+        int booked = show[1];
+        SqlParameterSource[] rows = new SqlParameterSource[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            // spread the remainder over the first shards; seats already sold fill shards in order
+            int capacity = show[0] / shards + (shard < show[0] % shards ? 1 : 0);
+            int shardBooked = Math.min(capacity, booked);
+            booked -= shardBooked;
+            rows[shard] = new MapSqlParameterSource()
+                    .addValue("id", showId)
+                    .addValue("shard", shard)
+                    .addValue("capacity", capacity)
+                    .addValue("booked", shardBooked);
+        }
+        try {
+            separateTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SHARD, rows));
+        } catch (DuplicateKeyException e) {
+            // another booking created them first
+        }
+    }
+
+    // applies a change to total_seats to the last shard that can absorb it
+    private void resize(Long showId, int delta) {
+        int shards = jdbcTemplate.queryForList(FREE, new MapSqlParameterSource("id", showId), Integer.class).size();
+        for (int shard = shards - 1; shard >= 0; shard--) {
+            if (jdbcTemplate.update(RESIZE, new MapSqlParameterSource()
+                    .addValue("id", showId)
+                    .addValue("shard", shard)
+                    .addValue("delta", delta)) == 1) {
+                shrinkWarned.remove(showId);
+                return;
+            }
+        }
+        // retried on later passes; warned about once per size
+        dirty.add(showId);
+        if (!Integer.valueOf(delta).equals(shrinkWarned.put(showId, delta))) {
+            log.warn("Cannot shrink seat shards of show {} by {}: no shard has that many free seats", showId, -delta);
+        }
+    }
+
+    private boolean update(String sql, Long showId, int shard, int seats) {
+        return jdbcTemplate.update(sql, new MapSqlParameterSource()
+                .addValue("id", showId)
+                .addValue("shard", shard)
+                .addValue("seats", seats)) == 1;
+    }
+}
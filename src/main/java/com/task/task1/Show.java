@@ -3,11 +3,13 @@ package com.task.task1;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "shows")
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,4 +41,6 @@ public class Show {
 
     @Column(nullable = false)
     private Integer bookedSeats = 0;
+
+    private Integer seatsPerRow;
 }
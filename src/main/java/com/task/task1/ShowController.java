@@ -1,11 +1,17 @@
 package com.task.task1;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/shows")
@@ -13,10 +19,23 @@ public class ShowController {
 
     private final ShowRepository showRepository;
     private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final CatalogCache catalogCache;
+    private final ShowSearchIndex searchIndex;
 
-    public ShowController(ShowRepository showRepository, EventRepository eventRepository) {
+    public ShowController(ShowRepository showRepository,
+                          EventRepository eventRepository,
+                          SeatInventory seatInventory,
+                          SeatCounter seatCounter,
+                          CatalogCache catalogCache,
+                          ShowSearchIndex searchIndex) {
         this.showRepository = showRepository;
         this.eventRepository = eventRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -34,10 +53,15 @@ public class ShowController {
                 .startTime(request.startTime())
                 .endTime(endTime)
                 .totalSeats(request.totalSeats())
+                .seatsPerRow(request.seatsPerRow())
                 .bookedSeats(0)
                 .build();
 
-        return showRepository.save(show);
+        Show saved = showRepository.save(show);
+        seatInventory.register(saved);
+        searchIndex.upsert(saved);
+        catalogCache.evictShows();
+        return saved;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -58,14 +82,62 @@ public class ShowController {
         LocalDateTime endTime = request.startTime().plusMinutes(event.getDurationMinutes());
         show.setEndTime(endTime);
         
+        // booked seats keep their labels, so the row layout is fixed once the show exists
+        if (request.seatsPerRow() != null && !request.seatsPerRow().equals(show.getSeatsPerRow())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "seatsPerRow cannot be changed");
+        }
+        int oldTotal = show.getTotalSeats();
+        if (request.totalSeats() != oldTotal && !seatInventory.resize(id, request.totalSeats())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "totalSeats cannot drop below the seats already booked or held");
+        }
         show.setTotalSeats(request.totalSeats());
-        
-        return showRepository.save(show);
+
+        Show saved;
+        try {
+            saved = showRepository.save(show);
+        } catch (RuntimeException e) {
+            seatInventory.resize(id, oldTotal);
+            throw e;
+        }
+        seatCounter.resized(id);
+        searchIndex.upsert(saved);
+        catalogCache.evictShows();
+        return saved;
     }
 
     @GetMapping
-    public List<Show> list() {
-        return showRepository.findAll();
+    public ResponseEntity<List<Show>> list(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit) {
+        return catalogCache.shows(after, CursorPage.limit(after, limit)).toResponse();
+    }
+
+    /** Faceted discovery from the in-memory index; repeat a facet parameter to match any of its values. */
+    @GetMapping("/search")
+    public ShowSearchResponse search(@RequestParam(required = false) List<String> city,
+                                     @RequestParam(required = false) List<String> genre,
+                                     @RequestParam(required = false) List<String> language,
+                                     @RequestParam(required = false) List<String> rating,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                     @RequestParam(defaultValue = "0") int offset,
+                                     @RequestParam(required = false) Integer limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        Map<ShowSearchIndex.Facet, List<String>> filters = new EnumMap<>(ShowSearchIndex.Facet.class);
+        filters.put(ShowSearchIndex.Facet.CITY, city);
+        filters.put(ShowSearchIndex.Facet.GENRE, genre);
+        filters.put(ShowSearchIndex.Facet.LANGUAGE, language);
+        filters.put(ShowSearchIndex.Facet.RATING, rating);
+        return searchIndex.search(filters, from, to, offset, CursorPage.limit(limit));
+    }
+
+    @GetMapping("/{id}/seats")
+    public SeatMapResponse seats(@PathVariable Long id) {
+        return seatInventory.snapshot(id);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -76,8 +148,13 @@ public class ShowController {
                 .orElseThrow(() -> new IllegalArgumentException("Show not found"));
         Event event = show.getEvent();
         showRepository.delete(show);
+        seatInventory.remove(id);
+        searchIndex.remove(id);
         if (showRepository.countByEventId(event.getId()) == 0) {
             eventRepository.delete(event);
+            catalogCache.evictEvents(event.getCity());
+        } else {
+            catalogCache.evictShows();
         }
     }
 }
@@ -0,0 +1,15 @@
+package com.task.task1;
+
+import java.time.LocalDateTime;
+
+public record ShowOccupancy(
+        Long showId,
+        Long eventId,
+        String title,
+        String city,
+        LocalDateTime startTime,
+        int totalSeats,
+        long bookings,
+        long seatsSold,
+        double occupancy
+) {}
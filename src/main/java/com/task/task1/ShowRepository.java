@@ -1,10 +1,29 @@
 package com.task.task1;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface ShowRepository extends JpaRepository<Show, Long> {
+    // Show.event is EAGER; without the graph a listing pays one extra select per distinct event.
+    @Override
+    @EntityGraph(attributePaths = "event")
+    List<Show> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "event")
+    @Transactional(readOnly = true)
+    List<Show> findAll(Sort sort);
+
     List<Show> findByEventId(Long eventId);
     long countByEventId(Long eventId);
+
+    @Modifying
+    @Query("UPDATE Show s SET s.bookedSeats = s.bookedSeats + :delta WHERE s.id = :id")
+    int incrementBookedSeats(Long id, int delta);
 }
@@ -2,6 +2,7 @@ package com.task.task1;
 
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 public record ShowRequest(
@@ -9,5 +10,6 @@ public record ShowRequest(
     @NotNull String venueName,
     @NotNull String auditoriumName,
     @NotNull @Future(message = "Start time must be in the future") LocalDateTime startTime,
-    @NotNull Integer totalSeats
+    @NotNull @Positive Integer totalSeats,
+    @Positive Integer seatsPerRow
 ) {}
\ No newline at end of file
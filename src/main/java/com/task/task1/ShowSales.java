@@ -0,0 +1,24 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** Booking totals per show, maintained by {@link SalesAggregates}. */
+@Entity
+@Table(name = "show_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShowSales {
+
+    @Id
+    private Long showId;
+
+    @Column(nullable = false)
+    private long bookings;
+
+    @Column(nullable = false)
+    private long seatsSold;
+}
@@ -0,0 +1,19 @@
+package com.task.task1;
+
+import java.time.LocalDateTime;
+
+public record ShowSearchHit(
+        Long showId,
+        Long eventId,
+        String title,
+        String city,
+        String genre,
+        String language,
+        String rating,
+        String venueName,
+        String auditoriumName,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        int totalSeats,
+        int availableSeats
+) {}
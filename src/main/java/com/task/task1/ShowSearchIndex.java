@@ -0,0 +1,347 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory show discovery. Shows are numbered in start-time order, so a date
+ * window is a contiguous run of numbers and results come out sorted; each
+ * facet value (city, genre, language, rating) maps to a {@link BitSet} of the
+ * shows that have it. A query is a few bitset ANDs; only the availability of
+ * hits this node has not loaded may come from the database, when the
+ * {@link SeatCounter} keeps exact counts outside the show row.
+ * <p>
+ * The index is an immutable snapshot swapped on change. Admin writes on this
+ * node are applied to the previous snapshot in memory once they commit; other
+ * nodes' writes arrive as {@link CatalogCache} invalidations and trigger a
+ * reload from the primary.
+ */
+@Component
+public class ShowSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowSearchIndex.class);
+
+    public enum Facet {
+        CITY, GENRE, LANGUAGE, RATING;
+
+        public String param() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ShowRepository showRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "show-search-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot = Snapshot.of(Map.of());
+
+    public ShowSearchIndex(ShowRepository showRepository, SeatInventory seatInventory, SeatCounter seatCounter,
+                           RemoteCache remoteCache) {
+        this.showRepository = showRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        remoteCache.onInvalidation(keys -> {
+            if (keys.contains(CatalogCache.SHOWS)) {
+                requestReload();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        long seen = generation.get();
+        List<Show> shows = ReadWriteRoutingDataSource.onPrimary(showRepository::findAll);
+        Map<Long, ShowDoc> docs = new HashMap<>();
+        for (Show show : shows) {
+            docs.put(show.getId(), ShowDoc.of(show));
+        }
+        Snapshot loaded = Snapshot.of(docs);
+        synchronized (this) {
+            if (generation.get() == seen) {
+                snapshot = loaded;
+                return;
+            }
+        }
+        // a local write landed while loading and may be missing from what was read
+        requestReload();
+    }
+
+    /** Whether the show exists as of the current snapshot; answered from memory. */
+    public boolean contains(Long showId) {
+        return snapshot.byId.containsKey(showId);
+    }
+
+    public void upsert(Show show) {
+        ShowDoc doc = ShowDoc.of(show);
+        afterCommit(() -> apply(docs -> docs.put(doc.showId(), doc)));
+    }
+
+    public void remove(Long showId) {
+        afterCommit(() -> apply(docs -> docs.remove(showId)));
+    }
+
+    /** Re-labels every show of the event after an admin edits it. */
+    public void updateEvent(Event event) {
+        afterCommit(() -> apply(docs -> docs.replaceAll((id, doc) ->
+                doc.eventId().equals(event.getId()) ? doc.withEvent(event) : doc)));
+    }
+
+    public void removeEvent(Long eventId) {
+        afterCommit(() -> apply(docs -> docs.values().removeIf(doc -> doc.eventId().equals(eventId))));
+    }
+
+    /**
+     * Shows starting in {@code [from, to)} (either bound may be null) that match
+     * any of the requested values in every filtered facet, in start-time order.
+     * Facet counts for a facet ignore that facet's own filter, so a client can
+     * offer the other values as alternatives.
+     */
+    public ShowSearchResponse search(Map<Facet, List<String>> filters,
+                                     LocalDateTime from,
+                                     LocalDateTime to,
+                                     int offset,
+                                     int limit) {
+        Snapshot index = snapshot;
+        BitSet window = index.window(from, to);
+        EnumMap<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+        filters.forEach((facet, values) -> {
+            if (values != null && !values.isEmpty()) {
+                selected.put(facet, index.anyOf(facet, values));
+            }
+        });
+
+        BitSet matches = (BitSet) window.clone();
+        selected.values().forEach(matches::and);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            BitSet base = (BitSet) window.clone();
+            selected.forEach((other, bits) -> {
+                if (other != facet) {
+                    base.and(bits);
+                }
+            });
+            facets.put(facet.param(), index.counts(facet, base));
+        }
+
+        List<ShowSearchHit> hits = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int skipped = 0;
+        for (int i = matches.nextSetBit(0); i >= 0 && hits.size() < limit; i = matches.nextSetBit(i + 1)) {
+            if (skipped++ < offset) {
+                continue;
+            }
+            ShowDoc doc = index.docs[i];
+            int booked = seatInventory.bookedSeats(doc.showId(),
+                    () -> seatCounter.bookedSeats(doc.showId(), doc.bookedSeats()));
+            hits.add(doc.toHit(doc.totalSeats() - booked));
+        }
+        return new ShowSearchResponse(hits, matches.cardinality(), facets);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    private void requestReload() {
+        if (!reloadPending.compareAndSet(false, true)) {
+            return;
+        }
+        reloader.execute(() -> {
+            reloadPending.set(false);
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Show search index reload failed: {}", e.toString());
+            }
+        });
+    }
+
+    private synchronized void apply(Consumer<Map<Long, ShowDoc>> change) {
+        Map<Long, ShowDoc> docs = new HashMap<>(snapshot.byId);
+        change.accept(docs);
+        snapshot = Snapshot.of(docs);
+        generation.incrementAndGet();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+
+        private static final Comparator<ShowDoc> BY_START =
+                Comparator.comparing(ShowDoc::startTime).thenComparing(ShowDoc::showId);
+
+        final Map<Long, ShowDoc> byId;
+        final ShowDoc[] docs;
+        final LocalDateTime[] starts;
+        final EnumMap<Facet, Map<String, BitSet>> postings = new EnumMap<>(Facet.class);
+        final EnumMap<Facet, Map<String, String>> labels = new EnumMap<>(Facet.class);
+
+        private Snapshot(Map<Long, ShowDoc> byId) {
+            this.byId = Map.copyOf(byId);
+            this.docs = byId.values().toArray(ShowDoc[]::new);
+            Arrays.sort(docs, BY_START);
+            this.starts = new LocalDateTime[docs.length];
+            for (Facet facet : Facet.values()) {
+                postings.put(facet, new HashMap<>());
+                labels.put(facet, new HashMap<>());
+            }
+            for (int i = 0; i < docs.length; i++) {
+                starts[i] = docs[i].startTime();
+                for (Facet facet : Facet.values()) {
+                    String value = docs[i].value(facet);
+                    if (value == null || value.isBlank()) {
+                        continue;
+                    }
+                    String key = normalize(value);
+                    postings.get(facet).computeIfAbsent(key, k -> new BitSet(docs.length)).set(i);
+                    labels.get(facet).putIfAbsent(key, value.trim());
+                }
+            }
+        }
+
+        static Snapshot of(Map<Long, ShowDoc> docs) {
+            return new Snapshot(docs);
+        }
+
+        BitSet window(LocalDateTime from, LocalDateTime to) {
+            int low = from == null ? 0 : firstAtOrAfter(from);
+            int high = to == null ? docs.length : firstAtOrAfter(to);
+            BitSet window = new BitSet(docs.length);
+            if (low < high) {
+                window.set(low, high);
+            }
+            return window;
+        }
+
+        BitSet anyOf(Facet facet, Collection<String> values) {
+            BitSet union = new BitSet(docs.length);
+            for (String value : values) {
+                BitSet bits = postings.get(facet).get(normalize(value));
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            return union;
+        }
+
+        Map<String, Integer> counts(Facet facet, BitSet base) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            postings.get(facet).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        BitSet bits = (BitSet) entry.getValue().clone();
+                        bits.and(base);
+                        int count = bits.cardinality();
+                        if (count > 0) {
+                            counts.put(labels.get(facet).get(entry.getKey()), count);
+                        }
+                    });
+            return counts;
+        }
+
+        private int firstAtOrAfter(LocalDateTime time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid].isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /** What the index keeps per show; copied out of the entities so nothing managed is retained. */
+    private record ShowDoc(Long showId,
+                           Long eventId,
+                           String title,
+                           String city,
+                           String genre,
+                           String language,
+                           String rating,
+                           String venueName,
+                           String auditoriumName,
+                           LocalDateTime startTime,
+                           LocalDateTime endTime,
+                           int totalSeats,
+                           int bookedSeats) {
+
+        static ShowDoc of(Show show) {
+            Event event = show.getEvent();
+            return new ShowDoc(show.getId(), event.getId(), event.getTitle(), event.getCity(), event.getGenre(),
+                    event.getLanguage(), event.getRating(), show.getVenueName(), show.getAuditoriumName(),
+                    show.getStartTime(), show.getEndTime(), show.getTotalSeats(),
+                    show.getBookedSeats() == null ? 0 : show.getBookedSeats());
+        }
+
+        ShowDoc withEvent(Event event) {
+            return new ShowDoc(showId, eventId, event.getTitle(), event.getCity(), event.getGenre(),
+                    event.getLanguage(), event.getRating(), venueName, auditoriumName,
+                    startTime, endTime, totalSeats, bookedSeats);
+        }
+
+        String value(Facet facet) {
+            return switch (facet) {
+                case CITY -> city;
+                case GENRE -> genre;
+                case LANGUAGE -> language;
+                case RATING -> rating;
+            };
+        }
+
+        ShowSearchHit toHit(int availableSeats) {
+            return new ShowSearchHit(showId, eventId, title, city, genre, language, rating,
+                    venueName, auditoriumName, startTime, endTime, totalSeats, Math.max(0, availableSeats));
+        }
+    }
+}
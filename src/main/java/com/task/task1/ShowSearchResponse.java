@@ -0,0 +1,14 @@
+package com.task.task1;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code total} counts every match, not just this page; {@code facets} maps
+ * each facet (city, genre, language, rating) to value counts.
+ */
+public record ShowSearchResponse(
+        List<ShowSearchHit> shows,
+        int total,
+        Map<String, Map<String, Integer>> facets
+) {}
@@ -0,0 +1,35 @@
+package com.task.task1;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One slice of a show's seat count under the {@code sharded} seat strategy;
+ * see {@link ShardedSeatCounter}.
+ */
+@Entity
+@Table(name = "show_seat_shards",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"show_id", "shard"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShowSeatShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "show_id", nullable = false)
+    private Long showId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer booked;
+}
@@ -0,0 +1,150 @@
+package com.task.task1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel: scheduling and cancelling are O(1), and each tick only
+ * visits the entries hashed into the current bucket. New entries go through a
+ * lock-free queue; buckets are touched only by the single ticker thread.
+ */
+public class TimingWheel<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Entry<T>>[] buckets;
+    private final ConcurrentLinkedQueue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpiry;
+    private final ScheduledExecutorService ticker;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private long tick;
+
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpiry) {
+        this(name, tickMillis, wheelSize, onExpiry, System::nanoTime, true);
+    }
+
+    /** With {@code autoTick} false nothing advances the wheel but calls to {@link #advance()}. */
+    @SuppressWarnings("unchecked")
+    TimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpiry,
+                LongSupplier nanoClock, boolean autoTick) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1) << 1);
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpiry = onExpiry;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        if (autoTick) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+            ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+    public Timeout schedule(T item, long delayMillis) {
+        Entry<T> entry = new Entry<>(item,
+                nanoClock.getAsLong() - startNanos + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        incoming.add(entry);
+        return entry;
+    }
+
+    void advance() {
+        long elapsed = nanoClock.getAsLong() - startNanos;
+        while ((tick + 1) * tickNanos <= elapsed) {
+            transferIncoming();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferIncoming() {
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            if (entry.cancelled) {
+                continue;
+            }
+            long due = Math.max(entry.deadlineNanos / tickNanos, tick);
+            entry.remainingRounds = (due - tick) / buckets.length;
+            buckets[(int) (due & mask)].add(entry);
+        }
+    }
+
+    private void expire(List<Entry<T>> bucket) {
+        List<T> expired = null;
+        int kept = 0;
+        for (Entry<T> entry : bucket) {
+            if (entry.cancelled) {
+                continue;
+            }
+            if (entry.remainingRounds <= 0) {
+                if (expired == null) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(entry.item);
+            } else {
+                entry.remainingRounds--;
+                bucket.set(kept++, entry);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+        if (expired != null) {
+            for (T item : expired) {
+                try {
+                    onExpiry.accept(item);
+                } catch (RuntimeException e) {
+                    // one failing callback must not stop the wheel
+                    log.warn("Expiry callback failed for {}", item, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    public interface Timeout {
+        void cancel();
+    }
+
+    private static final class Entry<T> implements Timeout {
+
+        final T item;
+        final long deadlineNanos;
+        long remainingRounds;
+        volatile boolean cancelled;
+
+        Entry(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "tokens issued up to this instant are dead" markers. Stateless
+ * authentication checks this map instead of reading the users table, so
+ * revocation costs a hash lookup. Only logout revokes today.
+ *
+ * <p>The markers live in this node's memory: a logout is not seen by other
+ * nodes and is forgotten on restart, so a revoked token stays usable there
+ * until it expires. A marker is dropped once every token it could cover has
+ * expired.
+ */
+@Component
+public class UserRevocationCache {
+
+    private final ConcurrentHashMap<String, Long> revokedUpTo = new ConcurrentHashMap<>();
+    private final long tokenLifetimeMillis;
+
+    public UserRevocationCache(@Value("${application.security.jwt.expiration}") long tokenLifetimeMillis) {
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    /**
+     * Invalidates every token of the user issued up to now. Tokens carrying only
+     * the second-precision {@code iat} are revoked when {@code iat <= floor(now)},
+     * so a token issued later in the same second by a fresh login stays valid
+     * because it also carries the issue time in milliseconds.
+     */
+    public void revoke(String email) {
+        revokedUpTo.merge(email, System.currentTimeMillis(), Math::max);
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        Long cutoff = revokedUpTo.get(claims.subject());
+        return cutoff != null && claims.issuedAtMillis() <= cutoff;
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation-sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long oldestLive = System.currentTimeMillis() - tokenLifetimeMillis;
+        revokedUpTo.values().removeIf(cutoff -> cutoff < oldestLive);
+    }
+
+    int size() {
+        return revokedUpTo.size();
+    }
+}
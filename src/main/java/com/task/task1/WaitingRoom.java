@@ -0,0 +1,419 @@
+package com.task.task1;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Virtual waiting room for shows under a booking rush. A show turns hot when
+ * its booking request rate reaches {@code app.waiting-room.hot-threshold};
+ * from then on, bookings and holds for it need an admitted queue ticket.
+ * Tickets are HMAC-signed and bound to the user and show. Each user holds at
+ * most one live ticket per show, and a successful booking or hold uses it up,
+ * so one admission buys one booking. Position and ETA come from two in-memory
+ * counters; tickets issued before a show turned hot keep their place in line
+ * rather than being admitted wholesale.
+ *
+ * Each show admits tickets in order at its own rate, which follows booking
+ * commit latency AIMD-style: halved when a second's slowest commit exceeds
+ * {@code app.waiting-room.target-latency}, otherwise raised by a fixed step.
+ * Shows cool back down {@code app.waiting-room.cool-down} after the rush ends.
+ */
+@Component
+public class WaitingRoom {
+
+    public static final String TICKET_HEADER = "X-Queue-Ticket";
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ConcurrentHashMap<Long, ShowQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ThreadLocal<Mac> macs;
+    private final LongSupplier nanoClock;
+    private final boolean enabled;
+    private final double hotThreshold;
+    private final long coolDownNanos;
+    private final double initialRate;
+    private final double minRate;
+    private final double maxRate;
+    private final double rateStep;
+    private final long targetLatencyNanos;
+    private final long ticketTtlMillis;
+    private final int maxShows;
+
+    @Autowired
+    public WaitingRoom(@Value("${app.waiting-room.secret:${application.security.jwt.secret-key}}") String secret,
+                       @Value("${app.waiting-room.enabled:true}") boolean enabled,
+                       @Value("${app.waiting-room.hot-threshold:50}") double hotThreshold,
+                       @Value("${app.waiting-room.cool-down:2m}") Duration coolDown,
+                       @Value("${app.waiting-room.initial-rate:20}") double initialRate,
+                       @Value("${app.waiting-room.min-rate:1}") double minRate,
+                       @Value("${app.waiting-room.max-rate:500}") double maxRate,
+                       @Value("${app.waiting-room.rate-step:5}") double rateStep,
+                       @Value("${app.waiting-room.target-latency:250ms}") Duration targetLatency,
+                       @Value("${app.waiting-room.ticket-ttl:2h}") Duration ticketTtl,
+                       @Value("${app.waiting-room.max-shows:10000}") int maxShows) {
+        this(secret, enabled, hotThreshold, coolDown, initialRate, minRate, maxRate, rateStep,
+                targetLatency, ticketTtl, maxShows, System::nanoTime);
+    }
+
+    WaitingRoom(String secret, boolean enabled, double hotThreshold, Duration coolDown,
+                double initialRate, double minRate, double maxRate, double rateStep,
+                Duration targetLatency, Duration ticketTtl, int maxShows, LongSupplier nanoClock) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+        this.enabled = enabled;
+        this.hotThreshold = hotThreshold;
+        this.coolDownNanos = coolDown.toNanos();
+        this.initialRate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rateStep = rateStep;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.ticketTtlMillis = ticketTtl.toMillis();
+        this.maxShows = maxShows;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Issues the caller a ticket for the show, or returns the one they already
+     * hold so rejoining never moves them up the line. While the show is not hot
+     * the ticket is reported as admitted, since bookings do not need it yet.
+     */
+    public QueueStatus join(long showId) {
+        String user = currentUser();
+        ShowQueue queue = queue(showId);
+        if (queue == null) {
+            return new QueueStatus(sign(showId, 0, user, System.currentTimeMillis()), 0, 0, true);
+        }
+        long now = nanoClock.getAsLong();
+        Ticket ticket = queue.issue(user, now, System.currentTimeMillis(), ticketTtlMillis,
+                (seq, issuedAt) -> sign(showId, seq, user, issuedAt));
+        return queue.status(ticket.token(), ticket.seq(), now, isHot(queue, now));
+    }
+
+    /** Position and ETA for a ticket previously issued by {@link #join}. */
+    public QueueStatus status(long showId, String ticket) {
+        long seq = verify(showId, ticket);
+        ShowQueue queue = queues.get(showId);
+        long now = nanoClock.getAsLong();
+        if (queue == null) {
+            return new QueueStatus(ticket, 0, 0, true);
+        }
+        return queue.status(ticket, seq, now, isHot(queue, now));
+    }
+
+    /**
+     * Counts a booking attempt towards hot-show detection and, while the show
+     * is hot, rejects callers without an admitted ticket with 429.
+     */
+    public void checkAdmission(Collection<Long> showIds, String ticket) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        for (Long showId : new LinkedHashSet<>(showIds)) {
+            if (showId == null) {
+                continue;
+            }
+            ShowQueue queue = queue(showId);
+            if (queue == null) {
+                continue;
+            }
+            queue.recordRequest(now, hotThreshold, coolDownNanos);
+            if (!isHot(queue, now)) {
+                continue;
+            }
+            if (ticket == null) {
+                rejected.incrementAndGet();
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Show " + showId + " is in high demand; join the queue at /api/shows/" + showId + "/queue");
+            }
+            long seq = verify(showId, ticket);
+            if (!queue.isLive(currentUser(), seq)) {
+                rejected.incrementAndGet();
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Queue ticket for show " + showId + " has been used; join the queue again");
+            }
+            if (!queue.isAdmitted(seq, now)) {
+                rejected.incrementAndGet();
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Queue ticket for show " + showId + " has not been admitted yet");
+            }
+        }
+    }
+
+    /**
+     * Uses up the caller's ticket for each show after a booking or hold went
+     * through. Tickets that do not verify are ignored; admission already
+     * rejected them wherever it mattered.
+     */
+    public void consume(Collection<Long> showIds, String ticket) {
+        if (!enabled || ticket == null) {
+            return;
+        }
+        for (Long showId : new LinkedHashSet<>(showIds)) {
+            ShowQueue queue = showId == null ? null : queues.get(showId);
+            if (queue == null) {
+                continue;
+            }
+            try {
+                queue.consume(currentUser(), verify(showId, ticket));
+            } catch (ResponseStatusException e) {
+                // not a ticket for this show
+            }
+        }
+    }
+
+    /**
+     * Feeds the adaptive admission rate with how long a booking, batch item or
+     * hold took, whether or not it succeeded.
+     */
+    public void recordCommit(Long showId, long latencyNanos) {
+        ShowQueue queue = showId == null ? null : queues.get(showId);
+        if (queue != null) {
+            queue.recordLatency(nanoClock.getAsLong(), latencyNanos, targetLatencyNanos,
+                    minRate, maxRate, rateStep);
+        }
+    }
+
+    public boolean isHot(long showId) {
+        ShowQueue queue = queues.get(showId);
+        return queue != null && isHot(queue, nanoClock.getAsLong());
+    }
+
+    public long hotShows() {
+        long now = nanoClock.getAsLong();
+        return queues.values().stream().filter(queue -> isHot(queue, now)).count();
+    }
+
+    /** Booking attempts turned away for lack of an admitted ticket. */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /** Drops the state of shows that are neither hot nor recently requested, and expired tickets. */
+    @Scheduled(fixedDelayString = "${app.waiting-room.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        queues.values().removeIf(queue -> queue.isIdle(now, coolDownNanos));
+        long expiredBefore = System.currentTimeMillis() - ticketTtlMillis;
+        queues.values().forEach(queue -> queue.dropTicketsIssuedBefore(expiredBefore));
+    }
+
+    private boolean isHot(ShowQueue queue, long now) {
+        return enabled && queue.isHot(now);
+    }
+
+    private ShowQueue queue(long showId) {
+        ShowQueue queue = queues.get(showId);
+        if (queue != null) {
+            return queue;
+        }
+        if (queues.size() >= maxShows) {
+            evictIdle();
+            if (queues.size() >= maxShows) {
+                return null;
+            }
+        }
+        return queues.computeIfAbsent(showId, id -> new ShowQueue(initialRate, nanoClock.getAsLong()));
+    }
+
+    private String sign(long showId, long seq, String user, long issuedAt) {
+        String payload = showId + "." + seq + "." + issuedAt;
+        return payload + "." + ENCODER.encodeToString(mac(payload, user));
+    }
+
+    /** Returns the ticket's sequence number, or throws 400 if it is forged, expired or someone else's. */
+    private long verify(long showId, String ticket) {
+        String[] parts = ticket == null ? new String[0] : ticket.split("\\.");
+        if (parts.length != 4) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed queue ticket");
+        }
+        String payload = parts[0] + "." + parts[1] + "." + parts[2];
+        byte[] signature;
+        try {
+            signature = DECODER.decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed queue ticket");
+        }
+        if (!MessageDigest.isEqual(signature, mac(payload, currentUser()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid queue ticket");
+        }
+        long ticketShow;
+        long seq;
+        long issuedAt;
+        try {
+            ticketShow = Long.parseLong(parts[0]);
+            seq = Long.parseLong(parts[1]);
+            issuedAt = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed queue ticket");
+        }
+        if (ticketShow != showId) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Queue ticket is for show " + ticketShow);
+        }
+        if (System.currentTimeMillis() - issuedAt > ticketTtlMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Queue ticket expired");
+        }
+        return seq;
+    }
+
+    private byte[] mac(String payload, String user) {
+        Mac mac = macs.get();
+        mac.update(payload.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(user.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String currentUser() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private record Ticket(long seq, String token, long issuedAtMillis) {}
+
+    private interface TicketSigner {
+        String sign(long seq, long issuedAtMillis);
+    }
+
+    /** Per-show counters; all reads and updates are short, in-memory and synchronized on the queue. */
+    private static final class ShowQueue {
+
+        private final Map<String, Ticket> tickets = new HashMap<>();
+        private long issued;
+        private double admitted;
+        private double rate;
+        private long lastAdvance;
+
+        private long windowStart;
+        private int windowRequests;
+        private long windowMaxLatency;
+        private long latencyWindowStart;
+        private boolean hot;
+        private long hotUntil;
+        private long lastRequest;
+
+        ShowQueue(double rate, long now) {
+            this.rate = rate;
+            this.lastAdvance = now;
+            this.windowStart = now;
+            this.latencyWindowStart = now;
+            this.lastRequest = now;
+        }
+
+        synchronized Ticket issue(String user, long now, long wallNow, long ttlMillis, TicketSigner signer) {
+            advance(now);
+            lastRequest = now;
+            Ticket ticket = tickets.get(user);
+            if (ticket == null || wallNow - ticket.issuedAtMillis() > ttlMillis) {
+                long seq = ++issued;
+                ticket = new Ticket(seq, signer.sign(seq, wallNow), wallNow);
+                tickets.put(user, ticket);
+            }
+            return ticket;
+        }
+
+        synchronized boolean isLive(String user, long seq) {
+            Ticket ticket = tickets.get(user);
+            return ticket != null && ticket.seq() == seq;
+        }
+
+        synchronized void consume(String user, long seq) {
+            Ticket ticket = tickets.get(user);
+            if (ticket != null && ticket.seq() == seq) {
+                tickets.remove(user);
+            }
+        }
+
+        synchronized void dropTicketsIssuedBefore(long wallTime) {
+            tickets.values().removeIf(ticket -> ticket.issuedAtMillis() < wallTime);
+        }
+
+        synchronized boolean isAdmitted(long seq, long now) {
+            advance(now);
+            return seq <= (long) admitted;
+        }
+
+        synchronized QueueStatus status(String ticket, long seq, long now, boolean hot) {
+            if (!hot) {
+                return new QueueStatus(ticket, 0, 0, true);
+            }
+            advance(now);
+            long position = Math.max(0, seq - (long) admitted);
+            return new QueueStatus(ticket, position, (long) Math.ceil(position / rate), position == 0);
+        }
+
+        synchronized void recordRequest(long now, double threshold, long coolDownNanos) {
+            lastRequest = now;
+            if (windowRequests == 0 && now - windowStart >= WINDOW_NANOS) {
+                windowStart = now;
+            }
+            windowRequests++;
+            long elapsed = now - windowStart;
+            if (elapsed >= WINDOW_NANOS) {
+                if (windowRequests / (elapsed / (double) WINDOW_NANOS) >= threshold) {
+                    // tickets issued while the show was quiet keep their place and are admitted at the rate
+                    hot = true;
+                    hotUntil = now + coolDownNanos;
+                }
+                windowStart = now;
+                windowRequests = 0;
+            }
+        }
+
+        synchronized void recordLatency(long now, long latency, long target,
+                                        double minRate, double maxRate, double step) {
+            windowMaxLatency = Math.max(windowMaxLatency, latency);
+            if (now - latencyWindowStart < WINDOW_NANOS) {
+                return;
+            }
+            advance(now);
+            rate = windowMaxLatency > target ? Math.max(minRate, rate / 2) : Math.min(maxRate, rate + step);
+            latencyWindowStart = now;
+            windowMaxLatency = 0;
+        }
+
+        synchronized boolean isHot(long now) {
+            return hot && now - hotUntil < 0;
+        }
+
+        synchronized boolean isIdle(long now, long coolDownNanos) {
+            return !isHot(now) && now - lastRequest > coolDownNanos;
+        }
+
+        private void advance(long now) {
+            admitted = Math.min(issued, admitted + rate * (now - lastAdvance) / WINDOW_NANOS);
+            lastAdvance = now;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.task.task1;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/shows/{showId}/queue")
+public class WaitingRoomController {
+
+    private final WaitingRoom waitingRoom;
+
+    public WaitingRoomController(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping
+    public QueueStatus join(@PathVariable Long showId) {
+        return waitingRoom.join(showId);
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping
+    public QueueStatus status(@PathVariable Long showId,
+                              @RequestHeader(WaitingRoom.TICKET_HEADER) String ticket) {
+        return waitingRoom.status(showId, ticket);
+    }
+}
@@ -0,0 +1,147 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+// printing the response would race the sender thread writing the stream
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class AvailabilityStreamTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    @Autowired
+    SeatInventory seatInventory;
+
+    @Autowired
+    AvailabilityStream availabilityStream;
+
+    @Autowired
+    ShowSearchIndex showSearchIndex;
+
+    @Test
+    void bookingsWithinATickReachEverySubscriberAsOneUpdate() throws Exception {
+        Show show = show();
+        MockHttpServletResponse first = subscribe(show.getId());
+        MockHttpServletResponse second = subscribe(show.getId());
+        awaitEvents(first, 1);
+        awaitEvents(second, 1);
+        assertThat(first.getContentAsString()).contains("\"availableSeats\":10", "\"delta\":0");
+
+        seatInventory.tryReserve(show.getId(), 2);
+        seatInventory.tryReserve(show.getId(), 3);
+        availabilityStream.tick();
+        // nothing moved since the last tick, so nothing is sent
+        availabilityStream.tick();
+
+        for (MockHttpServletResponse response : new MockHttpServletResponse[] {first, second}) {
+            awaitEvents(response, 2);
+            Thread.sleep(50);
+            assertThat(events(response.getContentAsString())).isEqualTo(2);
+            assertThat(response.getContentAsString()).contains("\"availableSeats\":5,\"delta\":-5");
+        }
+    }
+
+    @Test
+    void streamEndsWhenTheShowIsDeleted() throws Exception {
+        Show show = show();
+        int before = availabilityStream.subscribers();
+        MockHttpServletResponse response = subscribe(show.getId());
+        awaitEvents(response, 1);
+        assertThat(availabilityStream.subscribers()).isEqualTo(before + 1);
+
+        seatInventory.remove(show.getId());
+        showRepository.deleteById(show.getId());
+        availabilityStream.tick();
+
+        assertThat(availabilityStream.subscribers()).isEqualTo(before);
+    }
+
+    @Test
+    void unknownShowsAndGreedyClientsAreTurnedAway() throws Exception {
+        int before = availabilityStream.subscribers();
+        mockMvc.perform(get("/api/shows/{id}/availability", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        assertThat(availabilityStream.subscribers()).isEqualTo(before);
+
+        Show show = show();
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/api/shows/{id}/availability", show.getId()).with(from("10.0.0.9")))
+                    .andExpect(request().asyncStarted());
+        }
+        mockMvc.perform(get("/api/shows/{id}/availability", show.getId()).with(from("10.0.0.9")))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/shows/{id}/availability", show.getId()).with(from("10.0.0.10")))
+                .andExpect(request().asyncStarted());
+    }
+
+    private MockHttpServletResponse subscribe(Long showId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/shows/{id}/availability", showId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private Show show() {
+        Event event = eventRepository.save(Event.builder().title("Live Movie").durationMinutes(90).build());
+        Show show = showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 1")
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .totalSeats(10)
+                .bookedSeats(0)
+                .seatsPerRow(5)
+                .build());
+        showSearchIndex.upsert(show);
+        return show;
+    }
+
+    private static void awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events(response.getContentAsString()) < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(events(response.getContentAsString())).isEqualTo(count);
+    }
+
+    private static int events(String body) {
+        Matcher matcher = Pattern.compile("event:availability").matcher(body);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
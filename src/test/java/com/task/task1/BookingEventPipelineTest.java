@@ -0,0 +1,80 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "app.kafka.consumer.enabled=true",
+        "app.kafka.consumer.retry-initial-ms=100",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+})
+@EmbeddedKafka(partitions = 3, topics = "booking-confirmed")
+class BookingEventPipelineTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 1, 1, 20, 15);
+    // clear of the ids of bookings other tests created
+    private static final long BASE = 1_000_000_000L;
+
+    @Autowired
+    KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SalesAggregates salesAggregates;
+
+    @SpyBean
+    BookingNotifier notifier;
+
+    @Test
+    void aggregatesEachBookingOncePerShowDespiteRedelivery() throws Exception {
+        send(new BookingConfirmedEvent(BASE + 1, 7L, 900L, 2, AT));
+        send(new BookingConfirmedEvent(BASE + 2, 8L, 900L, 3, AT));
+        send(new BookingConfirmedEvent(BASE + 3, 7L, 901L, 4, AT));
+        // the outbox relay may resend after a lost acknowledgement
+        send(new BookingConfirmedEvent(BASE + 2, 8L, 900L, 3, AT));
+        kafkaTemplate.send("booking-confirmed", "900", "not json").get();
+        send(new BookingConfirmedEvent(BASE + 4, 9L, 900L, 1, AT));
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (salesAggregates.show(900L).getBookings() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(200);
+        assertThat(salesAggregates.show(900L)).usingRecursiveComparison().isEqualTo(new ShowSales(900L, 3, 6));
+        assertThat(salesAggregates.show(901L)).usingRecursiveComparison().isEqualTo(new ShowSales(901L, 1, 4));
+    }
+
+    @Test
+    void failedBatchesAreRetriedUntilTheyGoThroughAndCountedOnce() throws Exception {
+        // the rollup stage commits before the notifier fails, so the retry must not count the booking again
+        doThrow(new DataAccessResourceFailureException("database unavailable"))
+                .doThrow(new DataAccessResourceFailureException("database unavailable"))
+                .doCallRealMethod()
+                .when(notifier).accept(eq(902L), anyList());
+
+        send(new BookingConfirmedEvent(BASE + 10, 7L, 902L, 2, AT));
+
+        verify(notifier, timeout(30_000).times(3)).accept(eq(902L), anyList());
+        assertThat(salesAggregates.show(902L)).usingRecursiveComparison().isEqualTo(new ShowSales(902L, 1, 2));
+    }
+
+    private void send(BookingConfirmedEvent event) throws Exception {
+        kafkaTemplate.send("booking-confirmed", String.valueOf(event.showId()), objectMapper.writeValueAsString(event))
+                .get();
+    }
+}
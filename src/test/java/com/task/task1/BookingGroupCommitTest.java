@@ -0,0 +1,105 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingGroupCommitTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    InMemoryMessageBroker messageBroker;
+
+    @Test
+    @WithMockUser(username = "batch@example.com", roles = "USER")
+    void batch_booksEachRequestAndReportsIndividualFailures() throws Exception {
+        userRepository.save(User.builder()
+                .name("Batch User")
+                .email("batch@example.com")
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        Event event = eventRepository.save(Event.builder().title("Batch Movie").durationMinutes(90).build());
+        Show show = showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 1")
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .totalSeats(10)
+                .bookedSeats(0)
+                .seatsPerRow(5)
+                .build());
+
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(show.getId(), 4),
+                new BookingRequest(show.getId(), 0, List.of("B5")),
+                new BookingRequest(show.getId(), 6)
+        );
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .header(CorrelationIdFilter.HEADER, "batch-req-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.id").exists())
+                .andExpect(jsonPath("$[1].booking.seatNumbers").value("B5"))
+                .andExpect(jsonPath("$[2].error").value("Not enough seats available"));
+
+        assertThat(bookingRepository.findSeatNumbersByShowId(show.getId())).hasSize(2);
+
+        outboxRelay.drain();
+        assertThat(messageBroker.messages())
+                .filteredOn(m -> m.payload().contains("\"showId\":" + show.getId()))
+                .hasSize(2)
+                .allSatisfy(m -> assertThat(m.correlationId()).isEqualTo("batch-req-1"));
+        assertThat(outboxRelay.sampleStats().pending()).isZero();
+    }
+
+    @Test
+    @WithMockUser(username = "bulk@example.com", roles = "USER")
+    void batch_rejectsMoreBookingsThanTheConfiguredMaximum() throws Exception {
+        List<BookingRequest> requests = Collections.nCopies(11, new BookingRequest(1L, 1));
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest());
+    }
+}
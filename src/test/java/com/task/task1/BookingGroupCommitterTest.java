@@ -0,0 +1,82 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingGroupCommitterTest {
+
+    private BookingService bookingService;
+    private SeatInventory seatInventory;
+    private BookingGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        bookingService = mock(BookingService.class);
+        seatInventory = mock(SeatInventory.class);
+        when(seatInventory.exists(1L)).thenReturn(true);
+        committer = new BookingGroupCommitter(bookingService, seatInventory, 16, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.shutdown();
+    }
+
+    @Test
+    void rejectsMissingAndUnknownShowsWithoutQueueing() {
+        assertThatThrownBy(() -> committer.submit(command(null)).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        for (long id = 100; id < 200; id++) {
+            assertThatThrownBy(committer.submit(command(id))::join).hasMessageContaining("Show not found");
+        }
+        assertThat(committer.queuedShows()).isZero();
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void dropsTheShowQueueOnceDrained() throws Exception {
+        BatchBookingResult failure = BatchBookingResult.failure("Not enough seats available");
+        when(bookingService.bookGroup(eq(1L), any())).thenAnswer(inv -> {
+            List<?> commands = inv.getArgument(1);
+            return commands.stream().map(c -> failure).toList();
+        });
+
+        assertThat(committer.submit(command(1L)).get(5, TimeUnit.SECONDS)).isSameAs(failure);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (committer.queuedShows() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(committer.queuedShows()).isZero();
+
+        // a later booking for the show gets a fresh queue
+        assertThat(committer.submit(command(1L)).get(5, TimeUnit.SECONDS)).isSameAs(failure);
+    }
+
+    @Test
+    void retriesAGroupThatLostADeadlock() throws Exception {
+        BatchBookingResult failure = BatchBookingResult.failure("Not enough seats available");
+        when(bookingService.bookGroup(eq(1L), any()))
+                .thenThrow(new DeadlockLoserDataAccessException("deadlock", null))
+                .thenReturn(List.of(failure));
+
+        assertThat(committer.submit(command(1L)).get(5, TimeUnit.SECONDS)).isSameAs(failure);
+        verify(bookingService, times(2)).bookGroup(eq(1L), any());
+    }
+
+    private static BookingCommand command(Long showId) {
+        return new BookingCommand("user@example.com", 7L, new BookingRequest(showId, 1), null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingIdempotencyTest {
+
+    private static final BookingRequest REQUEST = new BookingRequest(1L, 2);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private InMemoryRemoteCache remoteCache;
+    private BookingIdempotency idempotency;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new InMemoryRemoteCache();
+        idempotency = newNode();
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("alice@test.com", null, List.of())));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void concurrentDuplicatesCoalesceOntoOneBooking() throws Exception {
+        AtomicInteger bookings = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        SecurityContext context = SecurityContextHolder.getContext();
+
+        List<CompletableFuture<BookingResponse>> calls = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    SecurityContextHolder.setContext(context);
+                    return idempotency.execute("key-1", REQUEST, () -> {
+                        bookings.incrementAndGet();
+                        await(release);
+                        return response(42L);
+                    });
+                }))
+                .toList();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (CompletableFuture<BookingResponse> call : calls) {
+            assertThat(call.get(5, TimeUnit.SECONDS).id()).isEqualTo(42L);
+        }
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesOnAnotherNodeAreServedFromTheSharedStore() {
+        idempotency.execute("key-1", REQUEST, () -> response(42L));
+
+        BookingResponse retried = newNode().execute("key-1", REQUEST, () -> {
+            throw new AssertionError("retry must not book again");
+        });
+        assertThat(retried.id()).isEqualTo(42L);
+        assertThat(retried.createdAt()).isNotNull();
+
+        assertThatThrownBy(() -> newNode().execute("key-1", new BookingRequest(1L, 3), () -> response(43L)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @Test
+    void inFlightClaimOnAnotherNodeIsAConflictAndFailuresAreForgotten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<BookingResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.setContext(new SecurityContextImpl(
+                    new UsernamePasswordAuthenticationToken("alice@test.com", null, List.of())));
+            return idempotency.execute("key-1", REQUEST, () -> {
+                await(release);
+                throw new IllegalStateException("Not enough seats");
+            });
+        });
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> newNode().execute("key-1", REQUEST, () -> response(43L)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+
+        release.countDown();
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Not enough seats");
+        assertThat(idempotency.execute("key-1", REQUEST, () -> response(44L)).id()).isEqualTo(44L);
+    }
+
+    @Test
+    void nearTierStaysWithinItsCapAndTrimmedKeysAreServedFromTheSharedStore() {
+        for (long i = 0; i < 3000; i++) {
+            long id = i;
+            idempotency.execute("key-" + i, REQUEST, () -> response(id));
+            assertThat(idempotency.nearSize()).isLessThanOrEqualTo(1000);
+        }
+
+        BookingResponse retried = idempotency.execute("key-0", REQUEST, () -> {
+            throw new AssertionError("retry must not book again");
+        });
+        assertThat(retried.id()).isZero();
+    }
+
+    private BookingIdempotency newNode() {
+        return new BookingIdempotency(remoteCache, objectMapper,
+                Duration.ofMinutes(10), Duration.ofHours(24), Duration.ofMinutes(1), 1000);
+    }
+
+    private static BookingResponse response(Long id) {
+        return new BookingResponse(id, "alice@test.com", null, "AUTO_2", LocalDateTime.now());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
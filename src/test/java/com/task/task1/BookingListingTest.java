@@ -0,0 +1,124 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingListingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Test
+    @WithMockUser(username = "pages@example.com", roles = "USER")
+    void list_followsCursorAcrossPages() throws Exception {
+        createBookings("pages@example.com", 3);
+
+        MvcResult first = mockMvc.perform(get("/api/bookings").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/bookings").param("limit", "2")
+                        .param("after", first.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].userEmail").value("pages@example.com"))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "whole@example.com", roles = "USER")
+    void list_withoutPagingParametersReturnsEverything() throws Exception {
+        createBookings("whole@example.com", CursorPage.DEFAULT_LIMIT + 1);
+
+        mockMvc.perform(get("/api/bookings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CursorPage.DEFAULT_LIMIT + 1))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+    void listAll_withoutPagingParametersReturnsTheFirstPage() throws Exception {
+        createBookings("all@example.com", CursorPage.DEFAULT_LIMIT + 1);
+
+        mockMvc.perform(get("/api/bookings/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CursorPage.DEFAULT_LIMIT))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+    void export_streamsOneJsonObjectPerLine() throws Exception {
+        createBookings("export@example.com", 4);
+
+        MvcResult started = mockMvc.perform(get("/api/bookings/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(Arrays.stream(body.split("\n"))
+                .filter(line -> line.startsWith("{") && line.contains("\"userEmail\":\"export@example.com\"")))
+                .hasSize(4);
+    }
+
+    private void createBookings(String email, int count) {
+        User user = userRepository.save(User.builder()
+                .name("Listing User")
+                .email(email)
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        Event event = eventRepository.save(Event.builder().title("Listing Movie").durationMinutes(90).build());
+        Show show = showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 2")
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .totalSeats(count)
+                .bookedSeats(count)
+                .build());
+        for (int i = 0; i < count; i++) {
+            bookingRepository.save(Booking.builder()
+                    .user(user)
+                    .show(show)
+                    .seatNumbers("A" + (i + 1))
+                    .seatCount(1)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,info,prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class BookingMetricsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    @Test
+    @WithMockUser(username = "metrics@example.com", roles = "USER")
+    void prometheus_exposesBookingPhasesRejectionsAndStatementCounts() throws Exception {
+        userRepository.save(User.builder()
+                .name("Metrics User")
+                .email("metrics@example.com")
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        Event event = eventRepository.save(Event.builder().title("Metrics Movie").durationMinutes(90).build());
+        Show show = showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 1")
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .totalSeats(2)
+                .bookedSeats(0)
+                .seatsPerRow(2)
+                .build());
+
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingRequest(show.getId(), 2))))
+                .andExpect(status().isOk());
+        assertThatThrownBy(() -> mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingRequest(show.getId(), 1)))))
+                .hasRootCauseMessage("Not enough seats available");
+        mockMvc.perform(get("/api/bookings")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(user("scraper").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("booking_phase_seconds_count{phase=\"reserve\"")
+                .contains("booking_phase_seconds_count{phase=\"claim\"")
+                .contains("booking_phase_seconds_count{phase=\"insert\"")
+                .contains("booking_phase_seconds_count{phase=\"outbox\"")
+                .contains("booking_transaction_seconds_count{outcome=\"committed\"")
+                .contains("booking_rejected_total{reason=\"not_enough_seats\",show=\"" + show.getId() + "\"")
+                .contains("http_server_requests_statements_count{method=\"GET\",status=\"200\",uri=\"/api/bookings\"")
+                .contains("outbox_pending");
+    }
+}
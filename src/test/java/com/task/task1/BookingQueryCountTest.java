@@ -0,0 +1,101 @@
+package com.task.task1;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BookingQueryCountTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = testEntityManager.persist(User.builder()
+                .name("Count User")
+                .email("count@example.com")
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        for (int i = 0; i < 3; i++) {
+            Event event = testEntityManager.persist(Event.builder()
+                    .title("Movie " + i).city("Pune").durationMinutes(90).build());
+            Show show = testEntityManager.persist(Show.builder()
+                    .event(event)
+                    .venueName("Hall")
+                    .auditoriumName("Screen " + i)
+                    .startTime(LocalDateTime.now().plusDays(1))
+                    .endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                    .totalSeats(10)
+                    .bookedSeats(1)
+                    .build());
+            testEntityManager.persist(Booking.builder()
+                    .user(user)
+                    .show(show)
+                    .seatNumbers("A1")
+                    .seatCount(1)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bookingPages_buildTheWholeResponseTreeInOneStatement() {
+        List<BookingResponse> mine = bookingRepository
+                .findPageByUserEmail("count@example.com", 0L, PageRequest.of(0, 10)).stream()
+                .map(new BookingMapper()::toBookingResponse)
+                .toList();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(mine).hasSize(3);
+        assertThat(mine.get(0).show().event().title()).isEqualTo("Movie 0");
+
+        statistics.clear();
+        bookingRepository.findPage(0L, PageRequest.of(0, 10));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        try (Stream<BookingView> all = bookingRepository.streamAll()) {
+            assertThat(all.count()).isEqualTo(3);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void showListing_fetchesEventsInTheSameStatement() {
+        List<Show> shows = showRepository.findAll(Sort.by("id"));
+
+        assertThat(shows).hasSize(3);
+        assertThat(shows).extracting(show -> show.getEvent().getTitle()).containsExactly("Movie 0", "Movie 1", "Movie 2");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
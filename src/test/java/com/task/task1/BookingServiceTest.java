@@ -1,11 +1,13 @@
 package com.task.task1;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -22,6 +24,7 @@ class BookingServiceTest {
     private BookingEventPublisher bookingEventPublisher;
     private EntityManager entityManager;
     private BookingMapper bookingMapper;
+    private SeatInventory seatInventory;
 
     private BookingService bookingService;
 
@@ -33,13 +36,18 @@ class BookingServiceTest {
         bookingEventPublisher = mock(BookingEventPublisher.class);
         entityManager = mock(EntityManager.class);
         bookingMapper = new BookingMapper(); // Using real mapper for simplicity
+        seatInventory = new SeatInventory(showRepository, bookingRepository, mock(TransactionTemplate.class));
 
         bookingService = new BookingService(
                 showRepository,
                 bookingRepository,
                 userRepository,
                 bookingEventPublisher,
-                bookingMapper
+                bookingMapper,
+                seatInventory,
+                mock(NamedParameterJdbcTemplate.class),
+                new BookingMetrics(new SimpleMeterRegistry()),
+                new InventorySeatCounter(seatInventory)
         );
         TestUtils.setField(bookingService, "entityManager", entityManager);
 
@@ -70,8 +78,9 @@ class BookingServiceTest {
 
         when(userRepository.findByEmail("test@example.com"))
                 .thenReturn(Optional.of(user));
-        when(entityManager.find(Show.class, 10L, LockModeType.PESSIMISTIC_WRITE))
+        when(entityManager.find(eq(Show.class), eq(10L), anyMap()))
                 .thenReturn(show);
+        when(showRepository.findById(10L)).thenReturn(Optional.of(show));
 
         Booking saved = Booking.builder()
                 .id(99L)
@@ -90,9 +99,10 @@ class BookingServiceTest {
 
         // then
         assertThat(result.id()).isEqualTo(99L);
-        assertThat(show.getBookedSeats()).isEqualTo(95);
+        assertThat(result.show().bookedSeats()).isEqualTo(95);
+        assertThat(seatInventory.availableSeats(10L)).isEqualTo(5);
 
-        verify(showRepository).save(show);
+        verify(showRepository, never()).save(any());
         verify(bookingEventPublisher).publish(any());
     }
 
@@ -111,12 +121,14 @@ class BookingServiceTest {
 
         when(userRepository.findByEmail("test@example.com"))
                 .thenReturn(Optional.of(user));
-        when(entityManager.find(Show.class, 10L, LockModeType.PESSIMISTIC_WRITE))
+        when(entityManager.find(eq(Show.class), eq(10L), anyMap()))
                 .thenReturn(show);
+        when(showRepository.findById(10L)).thenReturn(Optional.of(show));
 
         BookingRequest request = new BookingRequest(10L, 5);
 
         assertThrows(IllegalStateException.class, () -> bookingService.book(request));
+        assertThat(seatInventory.availableSeats(10L)).isEqualTo(2);
         verify(bookingRepository, never()).save(any());
         verify(bookingEventPublisher, never()).publish(any());
     }
@@ -0,0 +1,123 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CatalogCacheTest {
+
+    private EventRepository eventRepository;
+    private ShowRepository showRepository;
+    private SeatInventory seatInventory;
+    private InMemoryRemoteCache remoteCache;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        showRepository = mock(ShowRepository.class);
+        seatInventory = mock(SeatInventory.class);
+        remoteCache = new InMemoryRemoteCache();
+    }
+
+    @Test
+    void listings_areLoadedOncePerNodeAndSharedThroughTheRemoteTier() {
+        when(eventRepository.findAll(any(Sort.class))).thenReturn(List.of(event(1L, "Pune"), event(4L, "Pune")));
+        CatalogCache node1 = newCache();
+        CatalogCache node2 = newCache();
+
+        node1.events(null, 10);
+        node1.events(null, 10);
+        CursorPage<Event> fromNode2 = node2.events(null, 1);
+
+        verify(eventRepository, times(1)).findAll(any(Sort.class));
+        assertThat(fromNode2.items()).extracting(Event::getTitle).containsExactly("Event 1");
+        assertThat(fromNode2.nextCursor()).isEqualTo(1L);
+        assertThat(node2.events(1L, 1).items()).extracting(Event::getId).containsExactly(4L);
+        assertThat(node2.events(1L, 1).nextCursor()).isNull();
+    }
+
+    @Test
+    void listings_areLoadedFromThePrimary() {
+        List<Boolean> pinned = new ArrayList<>();
+        when(showRepository.findAll(any(Sort.class))).thenAnswer(invocation -> {
+            boolean wasPinned = ReadWriteRoutingDataSource.pin();
+            ReadWriteRoutingDataSource.restore(wasPinned);
+            pinned.add(wasPinned);
+            return List.of();
+        });
+
+        newCache().shows(null, 10);
+
+        assertThat(pinned).containsExactly(true);
+    }
+
+    @Test
+    void evictEvents_dropsOnlyTheAffectedCitiesOnEveryNode() {
+        when(eventRepository.findByCityIgnoreCaseOrderById("Pune")).thenReturn(List.of(event(1L, "Pune")));
+        when(eventRepository.findByCityIgnoreCaseOrderById("Mumbai")).thenReturn(List.of(event(2L, "Mumbai")));
+        CatalogCache node1 = newCache();
+        CatalogCache node2 = newCache();
+        node2.eventsInCity("Pune", null, 10);
+        node2.eventsInCity("Mumbai", null, 10);
+
+        node1.evictEvents("pune");
+        node2.eventsInCity("Pune", null, 10);
+        node2.eventsInCity("Mumbai", null, 10);
+
+        verify(eventRepository, times(2)).findByCityIgnoreCaseOrderById("Pune");
+        verify(eventRepository, times(1)).findByCityIgnoreCaseOrderById("Mumbai");
+    }
+
+    @Test
+    void shows_reportLiveBookedSeats() {
+        Show show = Show.builder().id(5L).event(event(1L, "Pune")).venueName("V").auditoriumName("A")
+                .startTime(LocalDateTime.of(2030, 1, 1, 18, 0)).endTime(LocalDateTime.of(2030, 1, 1, 20, 0))
+                .totalSeats(100).bookedSeats(0).build();
+        when(showRepository.findAll(any(Sort.class))).thenReturn(List.of(show));
+        when(seatInventory.bookedSeats(eq(5L), any())).thenReturn(10, 30);
+        CatalogCache cache = newCache();
+
+        assertThat(cache.shows(null, 10).items().get(0).getBookedSeats()).isEqualTo(10);
+        assertThat(cache.shows(null, 10).items().get(0).getBookedSeats()).isEqualTo(30);
+        verify(showRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void nearTier_keepsAdmittingTheFixedListingsOnceCitiesFillIt() {
+        when(eventRepository.findAll(any(Sort.class))).thenReturn(List.of(event(1L, "Pune")));
+        remoteCache = spy(new InMemoryRemoteCache());
+        CatalogCache cache = newCache();
+        for (int i = 0; i < 150; i++) {
+            cache.eventsInCity("city-" + i, null, 10);
+        }
+        cache.evictEvents("city-0");
+
+        cache.events(null, 10);
+        cache.events(null, 10);
+        cache.eventsInCity("city-200", null, 10);
+        cache.eventsInCity("city-200", null, 10);
+
+        verify(remoteCache, times(1)).get(CatalogCache.EVENTS);
+        verify(remoteCache, times(1)).get("catalog:events:city:city-200");
+    }
+
+    private CatalogCache newCache() {
+        return new CatalogCache(eventRepository, showRepository, seatInventory, (showId, seats) -> true, remoteCache,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                Duration.ofMinutes(1), Duration.ofMinutes(10), 100);
+    }
+
+    private static Event event(Long id, String city) {
+        return Event.builder().id(id).title("Event " + id).city(city).durationMinutes(120).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.task.task1;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@ConditionalOnProperty(name = "app.outbox.broker", havingValue = "memory")
+public class InMemoryMessageBroker implements MessageBroker {
+
+    public record Message(String topic, String key, String payload, String correlationId) {}
+
+    private final List<Message> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CompletableFuture<?> send(String topic, String key, String payload, String correlationId) {
+        messages.add(new Message(topic, key, payload, correlationId));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public List<Message> messages() {
+        return messages;
+    }
+}
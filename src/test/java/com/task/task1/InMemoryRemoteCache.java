@@ -0,0 +1,49 @@
+package com.task.task1;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "app.catalog.remote", havingValue = "memory")
+public class InMemoryRemoteCache implements RemoteCache {
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        values.put(key, value);
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, Duration ttl) {
+        return values.putIfAbsent(key, value) == null;
+    }
+
+    @Override
+    public void evict(Collection<String> keys) {
+        keys.forEach(values::remove);
+    }
+
+    @Override
+    public void publishInvalidation(Collection<String> keys) {
+        listeners.forEach(listener -> listener.accept(keys));
+    }
+
+    @Override
+    public void onInvalidation(Consumer<Collection<String>> listener) {
+        listeners.add(listener);
+    }
+}
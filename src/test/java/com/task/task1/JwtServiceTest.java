@@ -0,0 +1,123 @@
+package com.task.task1;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(60_000);
+    }
+
+    @Test
+    void verify_returnsClaimsAndReusesThemForTheSameToken() {
+        String token = jwtService.generateToken(user());
+
+        JwtClaims first = jwtService.verify(token);
+        JwtClaims second = jwtService.verify(token);
+
+        assertThat(first.subject()).isEqualTo("jwt@example.com");
+        assertThat(first.roles()).containsExactlyInAnyOrder("USER", "ADMIN");
+        assertThat(first.authorities()).extracting("authority").contains("ROLE_USER", "ROLE_ADMIN");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verify_rejectsTamperedAndExpiredTokens() {
+        String token = jwtService.generateToken(user());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtService.verify(tampered)).isNull();
+        assertThat(jwtService.verify("not-a-jwt")).isNull();
+        assertThat(newJwtService(-1_000).verify(newJwtService(-1_000).generateToken(user()))).isNull();
+    }
+
+    @Test
+    void verify_rejectsSignedTokensWithoutExpiry() {
+        String token = Jwts.builder()
+                .setSubject("jwt@example.com")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwtService.verify(token)).isNull();
+        assertThat(jwtService.isTokenValid(token, "jwt@example.com")).isFalse();
+    }
+
+    @Test
+    void verify_carriesUserIdAndHonoursRevocation() {
+        User user = user();
+        user.setId(7L);
+        JwtClaims claims = jwtService.verify(jwtService.generateToken(user));
+        UserRevocationCache revocations = new UserRevocationCache(60_000);
+
+        assertThat(claims.userId()).isEqualTo(7L);
+        assertThat(revocations.isRevoked(claims)).isFalse();
+        revocations.revoke("jwt@example.com");
+        assertThat(revocations.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void revocation_sparesTokensIssuedLaterInTheSameSecond() throws InterruptedException {
+        UserRevocationCache revocations = new UserRevocationCache(60_000);
+        long start = System.currentTimeMillis();
+        JwtClaims before = jwtService.verify(jwtService.generateToken(user()));
+        Thread.sleep(2);
+        revocations.revoke("jwt@example.com");
+        Thread.sleep(2);
+        JwtClaims after = jwtService.verify(jwtService.generateToken(user()));
+
+        assertThat(before.issuedAtMillis()).isGreaterThanOrEqualTo(start);
+        assertThat(revocations.isRevoked(before)).isTrue();
+        assertThat(revocations.isRevoked(after)).isFalse();
+    }
+
+    @Test
+    void revocation_secondPrecisionTokensAreRevokedUpToTheCurrentSecond() {
+        UserRevocationCache revocations = new UserRevocationCache(60_000);
+        long thisSecond = System.currentTimeMillis() / 1000 * 1000;
+        revocations.revoke("jwt@example.com");
+
+        assertThat(revocations.isRevoked(claimsIssuedAt(thisSecond))).isTrue();
+        assertThat(revocations.isRevoked(claimsIssuedAt(thisSecond + 60_000))).isFalse();
+    }
+
+    @Test
+    void revocation_markersAreDroppedOnceTheirTokensExpired() {
+        UserRevocationCache revocations = new UserRevocationCache(-1);
+        revocations.revoke("jwt@example.com");
+
+        revocations.evictExpired();
+
+        assertThat(revocations.size()).isZero();
+    }
+
+    private static JwtClaims claimsIssuedAt(long issuedAtMillis) {
+        return new JwtClaims("jwt@example.com", null, Set.of(), Set.of(), issuedAtMillis, issuedAtMillis + 60_000);
+    }
+
+    private static JwtService newJwtService(long expiration) {
+        JwtService service = new JwtService();
+        TestUtils.setField(service, "secretKey", SECRET);
+        TestUtils.setField(service, "jwtExpiration", expiration);
+        TestUtils.setField(service, "cacheSize", 100);
+        service.init();
+        return service;
+    }
+
+    private static User user() {
+        return User.builder().email("jwt@example.com").roles(Set.of("USER", "ADMIN")).build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.task.task1;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingPipelineTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger logger = context.getLogger("test.ring");
+
+    @AfterEach
+    void clearRates() {
+        LogSampler.rates().keySet().forEach(LogSampler::clearRate);
+        MDC.clear();
+    }
+
+    @Test
+    void ringDeliversEventsInOrderFromConcurrentThreads() throws Exception {
+        Collecting sink = new Collecting(null);
+        RingBufferAppender ring = ring(1024, sink);
+
+        List<Thread> threads = IntStream.range(0, 4)
+                .mapToObj(t -> new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        ring.doAppend(event(Level.INFO, t + ":" + i));
+                    }
+                }))
+                .toList();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ring.stop();
+
+        assertThat(sink.events).hasSize(400);
+        for (int t = 0; t < 4; t++) {
+            String prefix = t + ":";
+            assertThat(sink.events.stream()
+                    .map(ILoggingEvent::getMessage)
+                    .filter(m -> m.startsWith(prefix))
+                    .map(m -> Integer.parseInt(m.substring(prefix.length()))))
+                    .isSorted()
+                    .hasSize(100);
+        }
+    }
+
+    @Test
+    void fullRingDropsInfoButWritesWarnOnTheCallingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Collecting sink = new Collecting(release);
+        RingBufferAppender ring = ring(4, sink);
+
+        // the first event parks the writer; the ring fills behind it
+        ring.doAppend(event(Level.INFO, "info-0"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.events.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i < 10; i++) {
+            ring.doAppend(event(Level.INFO, "info-" + i));
+        }
+        ring.doAppend(event(Level.WARN, "warn"));
+        assertThat(ring.getDropped()).isGreaterThan(0);
+        assertThat(sink.events).extracting(ILoggingEvent::getMessage).contains("warn");
+
+        release.countDown();
+        ring.stop();
+        assertThat(sink.events).hasSize(11 - (int) ring.getDropped());
+    }
+
+    @Test
+    void samplerAppliesLongestPrefixAndNeverSamplesWarnings() {
+        LogSampler sampler = new LogSampler();
+        LogSampler.setRate("test", 0);
+        LogSampler.setRate("test.kept", 1);
+
+        assertThat(sampler.decide(null, context.getLogger("test.ring"), Level.INFO, "x", null, null))
+                .isEqualTo(FilterReply.DENY);
+        assertThat(sampler.decide(null, context.getLogger("test.kept.child"), Level.INFO, "x", null, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(sampler.decide(null, context.getLogger("test.ring"), Level.WARN, "x", null, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(sampler.decide(null, context.getLogger("testing"), Level.INFO, "x", null, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+
+        LogSampler.clearRate("test");
+        assertThat(sampler.decide(null, context.getLogger("test.ring"), Level.INFO, "x", null, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void jsonEncoderWritesMdcAndKeyValuePairs() {
+        MDC.put(CorrelationIdFilter.MDC_KEY, "req-1");
+        LoggingEvent event = event(Level.INFO, "request \"done\"");
+        event.addKeyValuePair(new KeyValuePair("status", 201));
+        event.addKeyValuePair(new KeyValuePair("uri", "/api/bookings"));
+        event.prepareForDeferredProcessing();
+
+        String line = new String(new JsonLogEncoder().encode(event), StandardCharsets.UTF_8);
+        assertThat(line)
+                .endsWith("}\n")
+                .contains("\"level\":\"INFO\"")
+                .contains("\"message\":\"request \\\"done\\\"\"")
+                .contains("\"correlationId\":\"req-1\"")
+                .contains("\"status\":201")
+                .contains("\"uri\":\"/api/bookings\"");
+    }
+
+    private RingBufferAppender ring(int capacity, Collecting sink) {
+        sink.setContext(context);
+        sink.start();
+        RingBufferAppender ring = new RingBufferAppender();
+        ring.setContext(context);
+        ring.setName("test");
+        ring.setCapacity(capacity);
+        ring.addAppender(sink);
+        ring.start();
+        return ring;
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+    }
+
+    private static class Collecting extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+        final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        Collecting(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+            if (release != null && !"warn".equals(event.getMessage())) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
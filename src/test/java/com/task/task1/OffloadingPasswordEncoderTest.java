@@ -0,0 +1,70 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OffloadingPasswordEncoderTest {
+
+    @Test
+    void encode_rejectsWith503WhenThePoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(slow, 1, 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.stats().active() + encoder.stats().queued() < 2) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("503");
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(encoder.stats().completed()).isEqualTo(2);
+        assertThat(encoder.stats().rejected()).isEqualTo(1);
+        encoder.shutdown();
+    }
+
+    @Test
+    void login_rehashesPasswordsBelowTheConfiguredCost() {
+        UserRepository userRepository = mock(UserRepository.class);
+        User user = User.builder().id(1L).email("old@example.com")
+                .passwordHash(new BCryptPasswordEncoder(4).encode("Secret123!"))
+                .roles(Set.of("USER")).build();
+        when(userRepository.findByEmail("old@example.com")).thenReturn(Optional.of(user));
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+        OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("old@example.com", "Secret123!"));
+
+        verify(userRepository).updatePasswordHash(eq("old@example.com"), startsWith("$2a$05$"));
+        assertThat(user.getPasswordHash()).startsWith("$2a$05$");
+        encoder.shutdown();
+    }
+}
@@ -0,0 +1,174 @@
+package com.task.task1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userOverBurstIsRejectedBeforeTheController() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 0.001, 2, 1000, 1000, 65536);
+        authenticate("alice@test.com");
+        AtomicInteger reached = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(booking("{\"showId\":7,\"seatCount\":1}"), response, (req, res) -> {
+                // the controller must still see the body the filter consumed
+                assertThat(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                        .contains("\"showId\":7");
+                reached.incrementAndGet();
+            });
+            assertThat(response.getStatus()).isEqualTo(i < 2 ? 200 : 429);
+        }
+        assertThat(reached.get()).isEqualTo(2);
+
+        authenticate("bob@test.com");
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":7,\"seatCount\":1}"), other, (req, res) -> reached.incrementAndGet());
+        assertThat(other.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void hotShowIsThrottledAcrossUsers() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 1000, 1000, 0.001, 3, 65536);
+
+        authenticate("alice@test.com");
+        MockHttpServletResponse batch = new MockHttpServletResponse();
+        filter.doFilter(booking("[{\"showId\":9,\"seatCount\":1},{\"showId\":9,\"seatCount\":2}]"),
+                batch, (req, res) -> {});
+        assertThat(batch.getStatus()).isEqualTo(200);
+
+        authenticate("bob@test.com");
+        MockHttpServletRequest hold = new MockHttpServletRequest("POST", "/api/shows/9/holds");
+        MockHttpServletResponse held = new MockHttpServletResponse();
+        filter.doFilter(hold, held, (req, res) -> {});
+        assertThat(held.getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":9,\"seatCount\":1}"), rejected, (req, res) -> {});
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+
+        MockHttpServletResponse otherShow = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":10,\"seatCount\":1}"), otherShow, (req, res) -> {});
+        assertThat(otherShow.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void queueJoinsDrawOnTheUserBucketOnly() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 0.001, 2, 0.001, 1, 65536);
+        authenticate("alice@test.com");
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/shows/9/queue"), response, (req, res) -> {});
+            assertThat(response.getStatus()).isEqualTo(i < 2 ? 200 : 429);
+        }
+
+        authenticate("bob@test.com");
+        MockHttpServletResponse booked = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":9,\"seatCount\":1}"), booked, (req, res) -> {});
+        assertThat(booked.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void quotedShowIdsAreChargedToTheShow() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 1000, 1000, 0.001, 1, 65536);
+        authenticate("alice@test.com");
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":\"5\",\"seatCount\":1}"), first, (req, res) -> {});
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":5,\"seatCount\":1}"), second, (req, res) -> {});
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void batchesAreChargedPerItemAndRejectedBeyondTheBurst() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 0.001, 3, 1000, 1000, 65536);
+        authenticate("alice@test.com");
+        AtomicInteger reached = new AtomicInteger();
+
+        MockHttpServletResponse tooLarge = new MockHttpServletResponse();
+        filter.doFilter(booking("[{\"showId\":1},{\"showId\":2},{\"showId\":3},{\"showId\":4}]"),
+                tooLarge, (req, res) -> reached.incrementAndGet());
+        MockHttpServletResponse fits = new MockHttpServletResponse();
+        filter.doFilter(booking("[{\"showId\":1},{\"showId\":2},{\"showId\":3}]"),
+                fits, (req, res) -> reached.incrementAndGet());
+        MockHttpServletResponse spent = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":1}"), spent, (req, res) -> reached.incrementAndGet());
+
+        assertThat(tooLarge.getStatus()).isEqualTo(400);
+        assertThat(fits.getStatus()).isEqualTo(200);
+        assertThat(spent.getStatus()).isEqualTo(429);
+        assertThat(reached.get()).isEqualTo(1);
+    }
+
+    @Test
+    void oversizedAndUnclassifiableBodiesNeverReachTheController() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100), new ObjectMapper(),
+                true, 1000, 1000, 1000, 1000, 64);
+        authenticate("alice@test.com");
+        AtomicInteger reached = new AtomicInteger();
+
+        MockHttpServletResponse oversized = new MockHttpServletResponse();
+        filter.doFilter(booking("{\"showId\":5,\"seats\":[\"" + "A1\",\"".repeat(20) + "A2\"]}"),
+                oversized, (req, res) -> reached.incrementAndGet());
+        assertThat(oversized.getStatus()).isEqualTo(413);
+
+        for (String body : List.of("{\"showId\":{\"id\":5}}", "{\"showId\":\"five\"}", "[null,{\"showId\":5}]", "42")) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(booking(body), response, (req, res) -> reached.incrementAndGet());
+            assertThat(response.getStatus()).as(body).isEqualTo(400);
+        }
+        assertThat(reached.get()).isZero();
+    }
+
+    @Test
+    void idleBucketsAreEvictedToStayWithinTheKeyLimit() {
+        LocalRateLimiter limiter = new LocalRateLimiter(2);
+        RateLimit limit = RateLimit.perSecond(1_000_000, 1);
+
+        assertThat(limiter.tryAcquire(1, 1, limit)).isZero();
+        assertThat(limiter.tryAcquire(2, 1, limit)).isZero();
+        // both buckets refill within a microsecond, so a third key evicts them instead of failing open
+        assertThat(limiter.tryAcquire(3, 1, limit)).isZero();
+    }
+
+    private static MockHttpServletRequest booking(String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings");
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(email, null, List.of())));
+    }
+}
@@ -0,0 +1,131 @@
+package com.task.task1;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        routing = new ReadWriteRoutingDataSource(primary, replica);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaUnlessItIsOutOfRotationOrPinned() {
+        assertThat(readOnlyRole()).isEqualTo("replica");
+        assertThat(readWriteRole()).isEqualTo("primary");
+        assertThat(ReadWriteRoutingDataSource.onPrimary(this::readOnlyRole))
+                .isEqualTo("primary");
+
+        routing.setReplicaAvailable(false);
+        assertThat(readOnlyRole()).isEqualTo("primary");
+    }
+
+    @Test
+    void lagMonitorTakesALaggingOrUnreachableReplicaOutOfRotation() {
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_status (lag DOUBLE)");
+        new JdbcTemplate(replica).execute("INSERT INTO replica_status VALUES (10)");
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, replica,
+                "SELECT lag FROM replica_status", Duration.ofSeconds(5));
+
+        monitor.check();
+        assertThat(monitor.lagSeconds()).isEqualTo(10);
+        assertThat(readOnlyRole()).isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag = 0.5");
+        monitor.check();
+        assertThat(readOnlyRole()).isEqualTo("replica");
+
+        new JdbcTemplate(replica).execute("DROP TABLE replica_status");
+        monitor.check();
+        assertThat(monitor.available()).isFalse();
+        assertThat(monitor.lagSeconds()).isNaN();
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1), 100);
+        AtomicReference<String> servedBy = new AtomicReference<>();
+
+        authenticate("alice@test.com");
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/bookings"), new MockHttpServletResponse(),
+                (request, response) -> { });
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/bookings/me"), new MockHttpServletResponse(),
+                (request, response) -> servedBy.set(readOnlyRole()));
+        assertThat(servedBy.get()).isEqualTo("primary");
+        // the pin ends with the request
+        assertThat(readOnlyRole()).isEqualTo("replica");
+
+        authenticate("bob@test.com");
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/bookings/me"), new MockHttpServletResponse(),
+                (request, response) -> servedBy.set(readOnlyRole()));
+        assertThat(servedBy.get()).isEqualTo("replica");
+    }
+
+    private String readOnlyRole() {
+        return readOnly.execute(status -> role());
+    }
+
+    private String readWriteRole() {
+        return readWrite.execute(status -> role());
+    }
+
+    private String role() {
+        return jdbcTemplate.queryForObject("SELECT name FROM role", String.class);
+    }
+
+    private static HikariDataSource database(String role) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE role (name VARCHAR(16))");
+        jdbc.update("INSERT INTO role VALUES (?)", role);
+        return dataSource;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(email, null, List.of())));
+    }
+}
@@ -0,0 +1,168 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class SalesAnalyticsTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2031, 3, 1, 9, 0);
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ShowRepository showRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    SalesAggregates salesAggregates;
+
+    @Autowired
+    SalesAnalytics salesAnalytics;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void rollupsRebuiltFromBookingsMatchIncrementalUpdates() {
+        String city = "City-" + UUID.randomUUID();
+        User user = userRepository.save(User.builder()
+                .name("Analyst")
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        Event event = eventRepository.save(Event.builder().title("Report Movie").city(city).durationMinutes(90).build());
+        Show busy = show(event, 10);
+        Show quiet = show(event, 20);
+        Booking first = book(user, busy, 4, NINE.plusMinutes(5));
+        book(user, busy, 2, NINE.plusMinutes(50));
+        book(user, quiet, 1, NINE.plusHours(1).plusMinutes(10));
+
+        salesAggregates.rebuild();
+        // a replayed event for a booking the rebuild counted is skipped
+        salesAggregates.accept(busy.getId(), List.of(new BookingConfirmedEvent(
+                first.getId(), user.getId(), busy.getId(), 4, first.getCreatedAt())));
+
+        List<ShowOccupancy> shows = salesAnalytics.shows(event.getId());
+        assertThat(shows).extracting(ShowOccupancy::showId).containsExactly(busy.getId(), quiet.getId());
+        assertThat(shows.get(0).bookings()).isEqualTo(2);
+        assertThat(shows.get(0).seatsSold()).isEqualTo(6);
+        assertThat(shows.get(0).occupancy()).isCloseTo(0.6, within(1e-9));
+        assertThat(shows.get(1).occupancy()).isCloseTo(0.05, within(1e-9));
+
+        assertThat(salesAnalytics.byCity()).filteredOn(row -> city.equals(row.city()))
+                .singleElement()
+                .satisfies(row -> {
+                    assertThat(row.shows()).isEqualTo(2);
+                    assertThat(row.totalSeats()).isEqualTo(30);
+                    assertThat(row.seatsSold()).isEqualTo(7);
+                });
+        assertThat(salesAnalytics.hourly(NINE, NINE.plusHours(2)))
+                .extracting(HourlySales::getHourStart, HourlySales::getBookings, HourlySales::getSeatsSold)
+                .containsExactly(
+                        tuple(NINE, 2L, 6L),
+                        tuple(NINE.plusHours(1), 1L, 1L));
+
+        // a new booking arriving through the pipeline lands on the same rows
+        Booking late = book(user, quiet, 3, NINE.plusMinutes(30));
+        salesAggregates.accept(quiet.getId(), List.of(new BookingConfirmedEvent(
+                late.getId(), user.getId(), quiet.getId(), 3, late.getCreatedAt())));
+        ShowSales incremental = salesAggregates.show(quiet.getId());
+        assertThat(salesAnalytics.hourly(NINE, NINE.plusHours(1)).get(0).getSeatsSold()).isEqualTo(9);
+
+        salesAggregates.rebuild();
+        assertThat(salesAggregates.show(quiet.getId())).usingRecursiveComparison().isEqualTo(incremental);
+        assertThat(salesAnalytics.topShows(100)).extracting(ShowOccupancy::showId)
+                .containsSubsequence(busy.getId(), quiet.getId());
+        assertThat(salesAnalytics.byEvent()).filteredOn(row -> event.getId().equals(row.id()))
+                .singleElement()
+                .satisfies(row -> assertThat(row.bookings()).isEqualTo(4));
+    }
+
+    @Test
+    void bookingUncommittedDuringARebuildIsCountedByItsEvent() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Analyst")
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .roles(Set.of("USER"))
+                .build());
+        Event event = eventRepository.save(Event.builder().title("Late Movie").city("Late").durationMinutes(90).build());
+        Show show = show(event, 10);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CompletableFuture<Booking> slow = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    Booking booking = book(user, show, 2, NINE.minusDays(1));
+                    inserted.countDown();
+                    await(rebuilt);
+                    return booking;
+                }));
+        inserted.await(10, TimeUnit.SECONDS);
+        // committed after the slow one took a lower id
+        book(user, show, 3, NINE.minusDays(1));
+
+        salesAggregates.rebuild();
+        rebuilt.countDown();
+        Booking late = slow.get(10, TimeUnit.SECONDS);
+        assertThat(salesAggregates.show(show.getId())).usingRecursiveComparison()
+                .isEqualTo(new ShowSales(show.getId(), 1, 3));
+
+        salesAggregates.accept(show.getId(), List.of(new BookingConfirmedEvent(
+                late.getId(), user.getId(), show.getId(), 2, late.getCreatedAt())));
+        assertThat(salesAggregates.show(show.getId())).usingRecursiveComparison()
+                .isEqualTo(new ShowSales(show.getId(), 2, 5));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Show show(Event event, int seats) {
+        return showRepository.save(Show.builder()
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 1")
+                .startTime(NINE.plusDays(1))
+                .endTime(NINE.plusDays(1).plusHours(2))
+                .totalSeats(seats)
+                .bookedSeats(0)
+                .build());
+    }
+
+    private Booking book(User user, Show show, int seats, LocalDateTime at) {
+        return bookingRepository.save(Booking.builder()
+                .user(user)
+                .show(show)
+                .seatNumbers("x")
+                .seatCount(seats)
+                .createdAt(at)
+                .build());
+    }
+}
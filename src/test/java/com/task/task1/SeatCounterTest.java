@@ -0,0 +1,181 @@
+package com.task.task1;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatCounterTest {
+
+    private EmbeddedDatabase database;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new NamedParameterJdbcTemplate(database);
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE TABLE shows (id BIGINT PRIMARY KEY, total_seats INT NOT NULL, booked_seats INT NOT NULL)");
+        jdbcTemplate.getJdbcTemplate().execute("INSERT INTO shows VALUES (1, 100, 0)");
+        jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE show_seat_shards (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "show_id BIGINT NOT NULL, shard INT NOT NULL, capacity INT NOT NULL, booked INT NOT NULL, "
+                + "UNIQUE (show_id, shard))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void pessimisticNeverOversells() throws Exception {
+        assertSellsOutExactly(new PessimisticSeatCounter(jdbcTemplate));
+    }
+
+    @Test
+    void conditionalNeverOversells() throws Exception {
+        assertSellsOutExactly(new ConditionalSeatCounter(jdbcTemplate));
+    }
+
+    @Test
+    void optimisticNeverOversellsAndRetriesLostRaces() throws Exception {
+        BookingMetrics metrics = new BookingMetrics(new SimpleMeterRegistry());
+        assertSellsOutExactly(new OptimisticSeatCounter(jdbcTemplate, metrics, 100, Duration.ofMillis(1)));
+    }
+
+    @Test
+    void shardedNeverOversellsAndRollsShardsUpIntoTheShow() throws Exception {
+        ShardedSeatCounter counter = new ShardedSeatCounter(jdbcTemplate, metrics(), 4, 10, 100);
+        assertThat(sellOut(counter)).isEqualTo(100);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM show_seat_shards", Map.of(), Integer.class))
+                .isEqualTo(4);
+        assertThat(counter.bookedSeats(1L, 0)).isEqualTo(100);
+
+        counter.rollUp();
+        assertThat(bookedSeats()).isEqualTo(100);
+    }
+
+    @Test
+    void shardedSpreadsLargeBookingsAndFollowsCapacityChanges() {
+        ShardedSeatCounter counter = new ShardedSeatCounter(jdbcTemplate, metrics(), 4, 10, 1);
+        // four shards of 25: 40 seats cannot come from one
+        assertThat(claim(counter, 40)).isTrue();
+        assertThat(claim(counter, 55)).isTrue();
+        assertThat(claim(counter, 6)).isFalse();
+        assertThat(claim(counter, 5)).isTrue();
+
+        jdbcTemplate.getJdbcTemplate().update("UPDATE shows SET total_seats = 120");
+        counter.rollUp();
+        assertThat(claim(counter, 20)).isTrue();
+        assertThat(claim(counter, 1)).isFalse();
+        counter.rollUp();
+        assertThat(bookedSeats()).isEqualTo(120);
+    }
+
+    @Test
+    void shardedNeverLocksBelowAShardTheTransactionHolds() {
+        ShardedSeatCounter counter = new ShardedSeatCounter(jdbcTemplate, metrics(), 4, 10, 1);
+        assertThat(claim(counter, 1)).isTrue();
+        // shard 0 has 5 seats left, shard 3 has 10, the others none
+        jdbcTemplate.getJdbcTemplate().update(
+                "UPDATE show_seat_shards SET booked = CASE shard WHEN 0 THEN 20 WHEN 3 THEN 15 ELSE 25 END");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertThat(counter.claim(1L, 10)).isTrue();
+            counter.claim(1L, 5);
+        })).isInstanceOf(IllegalStateException.class);
+
+        // a fresh transaction may start low again
+        assertThat(claim(counter, 5)).isTrue();
+        assertThat(claim(counter, 10)).isTrue();
+        assertThat(claim(counter, 1)).isFalse();
+    }
+
+    @Test
+    void shardedRollsUpOnlyShowsItClaimedOrResized() {
+        ShardedSeatCounter counter = new ShardedSeatCounter(jdbcTemplate, metrics(), 4, 10, 1);
+        jdbcTemplate.getJdbcTemplate().execute("INSERT INTO shows VALUES (2, 100, 0)");
+        jdbcTemplate.getJdbcTemplate().execute("INSERT INTO show_seat_shards (show_id, shard, capacity, booked) "
+                + "VALUES (2, 0, 100, 10)");
+        assertThat(claim(counter, 3)).isTrue();
+
+        counter.rollUp();
+        assertThat(bookedSeats()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT booked_seats FROM shows WHERE id = 2", Map.of(), Integer.class))
+                .isZero();
+        assertThat(counter.bookedSeats(2L, 0)).isEqualTo(10);
+
+        counter.resized(2L);
+        counter.rollUp();
+        assertThat(jdbcTemplate.queryForObject("SELECT booked_seats FROM shows WHERE id = 2", Map.of(), Integer.class))
+                .isEqualTo(10);
+    }
+
+    @Test
+    void claimsThatDoNotFitLeaveTheRowUntouched() {
+        SeatCounter counter = new ConditionalSeatCounter(jdbcTemplate);
+        assertThat(claim(counter, 98)).isTrue();
+        assertThat(claim(counter, 3)).isFalse();
+        assertThat(claim(counter, 2)).isTrue();
+        assertThat(bookedSeats()).isEqualTo(100);
+    }
+
+    private void assertSellsOutExactly(SeatCounter counter) throws Exception {
+        assertThat(sellOut(counter)).isEqualTo(100);
+        assertThat(bookedSeats()).isEqualTo(100);
+    }
+
+    private int sellOut(SeatCounter counter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> claims = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                claims.add(pool.submit(() -> claim(counter, 1)));
+            }
+            int granted = 0;
+            for (Future<Boolean> claim : claims) {
+                if (claim.get(30, TimeUnit.SECONDS)) {
+                    granted++;
+                }
+            }
+            return granted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static BookingMetrics metrics() {
+        return new BookingMetrics(new SimpleMeterRegistry());
+    }
+
+    private boolean claim(SeatCounter counter, int seats) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> counter.claim(1L, seats)));
+    }
+
+    private int bookedSeats() {
+        return jdbcTemplate.queryForObject("SELECT booked_seats FROM shows WHERE id = 1", Map.of(), Integer.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class SeatHoldServiceTest {
+
+    private SeatInventory seatInventory;
+    private BookingService bookingService;
+    private SeatHoldService seatHoldService;
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ShowRepository showRepository = mock(ShowRepository.class);
+        when(showRepository.findById(1L))
+                .thenReturn(Optional.of(Show.builder().id(1L).totalSeats(10).bookedSeats(0).build()));
+        seatInventory = new SeatInventory(showRepository, mock(BookingRepository.class), mock(TransactionTemplate.class));
+        bookingService = mock(BookingService.class);
+        seatHoldService = new SeatHoldService(seatInventory, bookingService, Duration.ofMillis(100), 10, nanos::get);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatHoldService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void expiredHold_releasesSeats() {
+        HoldResponse hold = seatHoldService.hold(1L, new HoldRequest(4, null));
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(6);
+
+        elapse(90);
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(6);
+        elapse(20);
+
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(10);
+        assertThrows(IllegalArgumentException.class, () -> seatHoldService.confirm(1L, hold.holdId()));
+    }
+
+    @Test
+    void confirmedHold_keepsSeatsAfterTtl() {
+        HoldResponse hold = seatHoldService.hold(1L, new HoldRequest(0, List.of("A1", "A2")));
+
+        seatHoldService.confirm(1L, hold.holdId());
+        elapse(400);
+
+        verify(bookingService).confirm(any(SeatHold.class));
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(8);
+    }
+
+    @Test
+    void failedConfirm_leavesHoldActive() {
+        HoldResponse hold = seatHoldService.hold(1L, new HoldRequest(2, null));
+        when(bookingService.confirm(any())).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> seatHoldService.confirm(1L, hold.holdId()));
+
+        seatHoldService.release(1L, hold.holdId());
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(10);
+    }
+
+    private void elapse(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        seatHoldService.tick();
+    }
+}
@@ -0,0 +1,100 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SeatInventoryTest {
+
+    private ShowRepository showRepository;
+    private BookingRepository bookingRepository;
+    private SeatInventory seatInventory;
+
+    @BeforeEach
+    void setUp() {
+        showRepository = mock(ShowRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<java.util.function.Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        seatInventory = new SeatInventory(showRepository, bookingRepository, transactionTemplate);
+    }
+
+    @Test
+    void concurrentReservations_neverOversell() throws Exception {
+        Show show = Show.builder().id(1L).totalSeats(1000).bookedSeats(0).build();
+        when(showRepository.findById(1L)).thenReturn(Optional.of(show));
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        for (int i = 0; i < 2000; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (seatInventory.tryReserve(1L, 3) != null) {
+                    reserved.addAndGet(3);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(reserved.get()).isEqualTo(999);
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void flush_persistsCommittedSeatsAsOneIncrementPerShow() {
+        Show show = Show.builder().id(1L).totalSeats(10).bookedSeats(0).build();
+        when(showRepository.findById(1L)).thenReturn(Optional.of(show));
+
+        seatInventory.tryReserve(1L, 2);
+        seatInventory.commit(1L, 2);
+        seatInventory.tryReserve(1L, 3);
+        seatInventory.commit(1L, 3);
+        seatInventory.flush();
+        seatInventory.flush();
+
+        verify(showRepository, times(1)).incrementBookedSeats(1L, 5);
+    }
+
+    @Test
+    void load_trustsBookingsTableWhenShowRowIsBehind() {
+        Show show = Show.builder().id(1L).totalSeats(10).bookedSeats(2).seatsPerRow(5).build();
+        when(showRepository.findById(1L)).thenReturn(Optional.of(show));
+        when(bookingRepository.findSeatNumbersByShowId(1L)).thenReturn(List.of("A1,A2", "B3,B4", "AUTO_2"));
+
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(4);
+        assertThat(seatInventory.tryReserve(1L, List.of("B3"))).isNull();
+        assertThat(seatInventory.tryReserve(1L, List.of("B5"))).containsExactly(9);
+    }
+
+    @Test
+    void resize_neverCutsOffOrUndercountsTakenSeats() {
+        Show show = Show.builder().id(1L).totalSeats(10).bookedSeats(0).seatsPerRow(5).build();
+        when(showRepository.findById(1L)).thenReturn(Optional.of(show));
+        assertThat(seatInventory.tryReserve(1L, List.of("A1", "A4"))).containsExactly(0, 3);
+
+        assertThat(seatInventory.resize(1L, 3)).isFalse();
+        assertThat(seatInventory.resize(1L, 4)).isTrue();
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(2);
+        assertThat(seatInventory.resize(1L, 20)).isTrue();
+        assertThat(seatInventory.availableSeats(1L)).isEqualTo(18);
+    }
+}
@@ -0,0 +1,68 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatMapTest {
+
+    @Test
+    void takeBestAvailable_prefersContiguousBlockInMiddleRow() {
+        SeatMap map = new SeatMap(30, 10);
+
+        int[] seats = map.takeBestAvailable(4);
+
+        assertThat(map.labels(seats)).isEqualTo("B1,B2,B3,B4");
+        assertThat(map.booked()).isEqualTo(4);
+    }
+
+    @Test
+    void takeBestAvailable_skipsGapsThatAreTooNarrow() {
+        SeatMap map = new SeatMap(10, 10);
+        map.take(new int[]{2, 6});
+
+        assertThat(map.takeBestAvailable(3)).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void takeBestAvailable_fallsBackToScatteredSeatsWhenNoRowFits() {
+        SeatMap map = new SeatMap(6, 3);
+        map.take(new int[]{1, 4});
+
+        assertThat(map.takeBestAvailable(4)).containsExactly(0, 2, 3, 5);
+        assertThat(map.takeBestAvailable(1)).isNull();
+    }
+
+    @Test
+    void take_isAllOrNothing() {
+        SeatMap map = new SeatMap(100, 10);
+        map.take(new int[]{42});
+
+        assertThat(map.take(new int[]{40, 41, 42})).isFalse();
+        assertThat(map.isTaken(40)).isFalse();
+        assertThat(map.booked()).isEqualTo(1);
+    }
+
+    @Test
+    void labelsRoundTripAcrossWordAndAlphabetBoundaries() {
+        SeatMap map = new SeatMap(10_000, 10);
+
+        for (int seat : new int[]{0, 63, 64, 259, 260, 9_999}) {
+            assertThat(map.parse(map.label(seat))).isEqualTo(seat);
+        }
+        assertThat(map.label(260)).isEqualTo("AA1");
+        assertThat(map.parse("A11")).isEqualTo(-1);
+        assertThat(map.parse("11")).isEqualTo(-1);
+    }
+
+    @Test
+    void resize_keepsTakenSeatsThatStillFit() {
+        SeatMap map = new SeatMap(20, 10);
+        map.take(new int[]{3, 15});
+
+        SeatMap smaller = map.resize(10);
+
+        assertThat(smaller.isTaken(3)).isTrue();
+        assertThat(smaller.booked()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ShowSearchIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final Event drama = event(1L, "Drama Night", "Pune", "Drama", "Hindi", "UA");
+    private final Event comedy = event(2L, "Stand-up", "Mumbai", "Comedy", "English", "A");
+    private final Event thriller = event(3L, "Thriller", "pune", "Thriller", "English", "UA");
+
+    private ShowRepository showRepository;
+    private SeatInventory seatInventory;
+    private ShowSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        showRepository = mock(ShowRepository.class);
+        seatInventory = mock(SeatInventory.class);
+        when(seatInventory.bookedSeats(anyLong(), any())).thenAnswer(inv -> inv.<IntSupplier>getArgument(1).getAsInt());
+        when(showRepository.findAll()).thenReturn(List.of(
+                show(10L, drama, DAY.plusHours(20)),
+                show(11L, comedy, DAY.plusHours(18)),
+                show(12L, thriller, DAY.plusDays(1).plusHours(21)),
+                show(13L, drama, DAY.plusDays(2).plusHours(19))));
+        index = new ShowSearchIndex(showRepository, seatInventory, (showId, seats) -> true, new InMemoryRemoteCache());
+        index.reload();
+    }
+
+    @Test
+    void filtersByFacetsAndWindowInStartTimeOrder() {
+        ShowSearchResponse all = index.search(Map.of(), null, null, 0, 10);
+        assertThat(all.shows()).extracting(ShowSearchHit::showId).containsExactly(11L, 10L, 12L, 13L);
+        assertThat(all.facets().get("city")).containsExactlyInAnyOrderEntriesOf(Map.of("Pune", 3, "Mumbai", 1));
+
+        ShowSearchResponse punePair = index.search(filters(ShowSearchIndex.Facet.CITY, "PUNE"),
+                DAY, DAY.plusDays(2), 0, 10);
+        assertThat(punePair.shows()).extracting(ShowSearchHit::showId).containsExactly(10L, 12L);
+        assertThat(punePair.total()).isEqualTo(2);
+        // the city facet ignores the city filter, other facets honour it
+        assertThat(punePair.facets().get("city")).containsEntry("Mumbai", 1).containsEntry("Pune", 2);
+        assertThat(punePair.facets().get("language")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Hindi", 1, "English", 1));
+
+        Map<ShowSearchIndex.Facet, List<String>> englishOrHindi = filters(ShowSearchIndex.Facet.LANGUAGE,
+                "english", "hindi");
+        englishOrHindi.put(ShowSearchIndex.Facet.RATING, List.of("UA"));
+        ShowSearchResponse page = index.search(englishOrHindi, null, null, 1, 1);
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.shows()).extracting(ShowSearchHit::showId).containsExactly(12L);
+        assertThat(page.shows().get(0).availableSeats()).isEqualTo(100);
+    }
+
+    @Test
+    void adminChangesApplyWithoutReloadingFromTheDatabase() {
+        index.upsert(show(14L, comedy, DAY.plusHours(1)));
+        index.remove(12L);
+        drama.setCity("Delhi");
+        index.updateEvent(drama);
+
+        ShowSearchResponse result = index.search(Map.of(), null, null, 0, 10);
+        assertThat(result.shows()).extracting(ShowSearchHit::showId).containsExactly(14L, 11L, 10L, 13L);
+        assertThat(result.facets().get("city")).containsExactlyInAnyOrderEntriesOf(Map.of("Delhi", 2, "Mumbai", 2));
+
+        index.removeEvent(comedy.getId());
+        assertThat(index.search(Map.of(), null, null, 0, 10).total()).isEqualTo(2);
+        verify(showRepository, times(1)).findAll();
+    }
+
+    private static Map<ShowSearchIndex.Facet, List<String>> filters(ShowSearchIndex.Facet facet, String... values) {
+        Map<ShowSearchIndex.Facet, List<String>> filters = new EnumMap<>(ShowSearchIndex.Facet.class);
+        filters.put(facet, List.of(values));
+        return filters;
+    }
+
+    private static Event event(Long id, String title, String city, String genre, String language, String rating) {
+        return Event.builder().id(id).title(title).city(city).genre(genre).language(language).rating(rating)
+                .durationMinutes(120).build();
+    }
+
+    private static Show show(Long id, Event event, LocalDateTime start) {
+        return Show.builder()
+                .id(id)
+                .event(event)
+                .venueName("Hall")
+                .auditoriumName("Screen 1")
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .totalSeats(100)
+                .bookedSeats(0)
+                .build();
+    }
+}
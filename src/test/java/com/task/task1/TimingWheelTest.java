@@ -0,0 +1,55 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void expiresOnTheDueTickAcrossRoundsAndSkipsCancelled() {
+        List<String> expired = new ArrayList<>();
+        TimingWheel<String> wheel = new TimingWheel<>("test", 10, 4, expired::add, nanos::get, false);
+        wheel.schedule("soon", 25);
+        wheel.schedule("later", 95);
+        wheel.schedule("cancelled", 25).cancel();
+
+        elapse(wheel, 20);
+        assertThat(expired).isEmpty();
+        elapse(wheel, 10);
+        assertThat(expired).containsExactly("soon");
+        elapse(wheel, 60);
+        assertThat(expired).containsExactly("soon");
+        elapse(wheel, 20);
+        assertThat(expired).containsExactly("soon", "later");
+    }
+
+    @Test
+    void failingCallbackDoesNotStopTheWheel() {
+        List<String> expired = new ArrayList<>();
+        TimingWheel<String> wheel = new TimingWheel<>("test", 10, 4, item -> {
+            if (item.equals("bad")) {
+                throw new IllegalStateException("release failed");
+            }
+            expired.add(item);
+        }, nanos::get, false);
+        wheel.schedule("bad", 5);
+        wheel.schedule("good", 5);
+        wheel.schedule("next", 15);
+
+        elapse(wheel, 30);
+        assertThat(expired).containsExactly("good", "next");
+    }
+
+    private void elapse(TimingWheel<?> wheel, long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        wheel.advance();
+    }
+}
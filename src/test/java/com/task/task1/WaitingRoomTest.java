@@ -0,0 +1,168 @@
+package com.task.task1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WaitingRoomTest {
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private WaitingRoom waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoom = new WaitingRoom("test-secret", true, 10, Duration.ofMinutes(1),
+                2, 1, 100, 1, Duration.ofMillis(100), Duration.ofHours(1), 100, clock::get);
+        authenticate("alice@test.com");
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void showTurnsHotFromRequestRateAndThenAdmitsTicketsInOrder() {
+        QueueStatus early = waitingRoom.join(1L);
+        assertThat(early.admitted()).isTrue();
+
+        makeHot(1L);
+        assertThat(waitingRoom.isHot(1L)).isTrue();
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(List.of(1L), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        // the early ticket was first in line and has been admitted at the rate
+        waitingRoom.checkAdmission(List.of(1L), early.ticket());
+
+        authenticate("bob@test.com");
+        QueueStatus first = waitingRoom.join(1L);
+        authenticate("carol@test.com");
+        QueueStatus second = waitingRoom.join(1L);
+        assertThat(first.position()).isEqualTo(1);
+        assertThat(second.position()).isEqualTo(2);
+        assertThat(second.etaSeconds()).isEqualTo(1);
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(List.of(1L), second.ticket()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        // initial rate is two admissions a second
+        advance(500);
+        authenticate("bob@test.com");
+        assertThat(waitingRoom.status(1L, first.ticket()).admitted()).isTrue();
+        authenticate("carol@test.com");
+        assertThat(waitingRoom.status(1L, second.ticket()).position()).isEqualTo(1);
+        advance(500);
+        waitingRoom.checkAdmission(List.of(1L), second.ticket());
+
+        // other shows are unaffected
+        waitingRoom.checkAdmission(List.of(2L), null);
+    }
+
+    @Test
+    void ticketsAreBoundToUserAndShow() {
+        makeHot(1L);
+        QueueStatus status = waitingRoom.join(1L);
+        advance(1000);
+
+        assertThatThrownBy(() -> waitingRoom.status(2L, status.ticket()))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> waitingRoom.status(1L, status.ticket().replace("1.1.", "1.0.")))
+                .isInstanceOf(ResponseStatusException.class);
+
+        authenticate("mallory@test.com");
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(List.of(1L), status.ticket()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Invalid queue ticket");
+    }
+
+    @Test
+    void ticketsIssuedBeforeTheRushAreNotAdmittedWholesale() {
+        QueueStatus[] early = new QueueStatus[6];
+        for (int i = 0; i < early.length; i++) {
+            authenticate("early" + i + "@test.com");
+            early[i] = waitingRoom.join(1L);
+        }
+
+        makeHot(1L);
+
+        // 1.1 s at two admissions a second lets the first two through, the rest keep their place
+        authenticate("early1@test.com");
+        waitingRoom.checkAdmission(List.of(1L), early[1].ticket());
+        authenticate("early5@test.com");
+        assertThat(waitingRoom.status(1L, early[5].ticket()).position()).isEqualTo(4);
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(List.of(1L), early[5].ticket()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("has not been admitted yet");
+    }
+
+    @Test
+    void eachUserHoldsOneTicketPerShowAndABookingUsesItUp() {
+        makeHot(1L);
+        QueueStatus first = waitingRoom.join(1L);
+        assertThat(waitingRoom.join(1L)).isEqualTo(first);
+        advance(1000);
+        waitingRoom.checkAdmission(List.of(1L), first.ticket());
+
+        waitingRoom.consume(List.of(1L), first.ticket());
+
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(List.of(1L), first.ticket()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("has been used");
+        QueueStatus again = waitingRoom.join(1L);
+        assertThat(again.ticket()).isNotEqualTo(first.ticket());
+        assertThat(again.position()).isEqualTo(1);
+    }
+
+    @Test
+    void admissionRateBacksOffWhenCommitsAreSlow() {
+        makeHot(1L);
+        for (int i = 0; i < 4; i++) {
+            authenticate("fan" + i + "@test.com");
+            waitingRoom.join(1L);
+        }
+        // rate 2/s, slow commit halves it to 1/s
+        advance(1000);
+        waitingRoom.recordCommit(1L, TimeUnit.MILLISECONDS.toNanos(500));
+        authenticate("alice@test.com");
+        QueueStatus next = waitingRoom.join(1L);
+        assertThat(next.position()).isEqualTo(3);
+        assertThat(next.etaSeconds()).isEqualTo(3);
+
+        // fast commits raise it additively
+        advance(1000);
+        waitingRoom.recordCommit(1L, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(waitingRoom.status(1L, next.ticket()).etaSeconds()).isEqualTo(1);
+    }
+
+    private void makeHot(long showId) {
+        for (int i = 0; i < 20; i++) {
+            try {
+                waitingRoom.checkAdmission(List.of(showId), null);
+            } catch (ResponseStatusException e) {
+                // the request that tips the show over is already queued
+            }
+            advance(55);
+        }
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(email, null, List.of())));
+    }
+}